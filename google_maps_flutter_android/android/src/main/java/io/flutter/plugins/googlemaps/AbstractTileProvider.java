@@ -0,0 +1,144 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import androidx.annotation.Nullable;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Base of the tile providers of tile overlays, which serves the tiles from the {@link TileCache} of
+ * the overlay, if any, and loads the others.
+ *
+ * <p>{@link #getTile} is called from the tile threads of the Maps SDK, the other methods from the
+ * main thread.
+ */
+abstract class AbstractTileProvider implements TileProvider {
+  static final long DEFAULT_TILE_TIMEOUT_MILLIS = 10000;
+
+  final String tileOverlayId;
+  @Nullable private final TileCache tileCache;
+  final TileMetrics metrics = new TileMetrics();
+  private volatile long tileTimeoutMillis = DEFAULT_TILE_TIMEOUT_MILLIS;
+
+  AbstractTileProvider(String tileOverlayId, @Nullable TileCache tileCache) {
+    this.tileOverlayId = tileOverlayId;
+    this.tileCache = tileCache;
+  }
+
+  @Override
+  public final Tile getTile(int x, int y, int zoom) {
+    final long startTime = metrics.onRequestStart();
+    Tile tile = null;
+    try {
+      tile = getTileUncounted(x, y, zoom);
+      return tile;
+    } finally {
+      metrics.onRequestEnd(startTime, tile);
+    }
+  }
+
+  private Tile getTileUncounted(int x, int y, int zoom) {
+    if (tileCache != null) {
+      Tile tile = tileCache.get(x, y, zoom);
+      if (tile != null) {
+        return tile;
+      }
+    }
+    Tile tile = loadTile(x, y, zoom);
+    if (tileCache != null && tile != TileProvider.NO_TILE) {
+      tileCache.put(x, y, zoom, tile);
+    }
+    return tile;
+  }
+
+  /**
+   * Returns the tile, {@link TileProvider#NO_TILE} if there is none, or null if it can't be loaded
+   * right now, in which case the Maps SDK requests it again later if it is still needed.
+   */
+  @Nullable
+  abstract Tile loadTile(int x, int y, int zoom);
+
+  /**
+   * Loads a tile into the cache before the Maps SDK asks for it. Does nothing if the provider has
+   * no cache or the tile is already cached.
+   */
+  void prefetchTile(int x, int y, int zoom) {
+    if (tileCache == null || tileCache.contains(x, y, zoom)) {
+      return;
+    }
+    Tile tile = loadTileAhead(x, y, zoom);
+    if (tile != TileProvider.NO_TILE) {
+      tileCache.put(x, y, zoom, tile);
+    }
+  }
+
+  /**
+   * Loads a tile that isn't requested by the Maps SDK yet, so it may be out of the viewport and
+   * should not be cancelled with the requests that are.
+   */
+  @Nullable
+  Tile loadTileAhead(int x, int y, int zoom) {
+    return loadTile(x, y, zoom);
+  }
+
+  /** Sets how long to wait for a tile before giving up on it; 0 waits forever. */
+  void setTileTimeout(long tileTimeoutMillis) {
+    this.tileTimeoutMillis = tileTimeoutMillis;
+  }
+
+  long getTileTimeout() {
+    return tileTimeoutMillis;
+  }
+
+  /** Sets the batch window of the tile requests, if the provider batches them. */
+  void setBatchWindow(long batchWindowMillis) {}
+
+  /** Cancels the pending requests of tiles that are no longer needed for the viewport. */
+  void setViewport(TileViewport viewport) {}
+
+  /** Returns true if the version changed, so that the overlay needs to request its tiles again. */
+  boolean setCacheVersion(String cacheVersion) {
+    return tileCache != null && tileCache.setVersion(cacheVersion);
+  }
+
+  Map<String, Object> getTileCacheStats() {
+    return tileCache != null ? tileCache.getStats() : null;
+  }
+
+  abstract Map<String, Object> getTileRequestStats();
+
+  /**
+   * Returns the metrics of the overlay: the counters and latency percentiles of the tile requests of
+   * the Maps SDK, which don't count prefetched tiles, with the stats of the cache, if any, under
+   * "cache" and those of the provider under "provider".
+   */
+  Map<String, Object> getTileMetrics() {
+    final Map<String, Object> data = metrics.toJson();
+    final Map<String, Object> cacheStats = getTileCacheStats();
+    if (cacheStats != null) {
+      data.put("cache", cacheStats);
+    }
+    data.put("provider", getTileRequestStats());
+    return data;
+  }
+
+  /** Releases the resources of the provider once its overlay has been removed. */
+  void dispose() {}
+
+  static byte[] readFully(InputStream input) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(16 * 1024);
+    final byte[] buffer = new byte[8 * 1024];
+    int read;
+    while ((read = input.read(buffer)) != -1) {
+      output.write(buffer, 0, read);
+    }
+    return output.toByteArray();
+  }
+}
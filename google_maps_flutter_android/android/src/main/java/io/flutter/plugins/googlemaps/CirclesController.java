@@ -15,14 +15,14 @@ import java.util.Map;
 class CirclesController {
 
   private final Map<String, CircleController> circleIdToController;
-  private final Map<String, String> googleMapsCircleIdToDartCircleId;
+  private final GoogleMapsIdRegistry googleMapsCircleIdToDartCircleId;
   private final MethodChannel methodChannel;
   private final float density;
   private GoogleMap googleMap;
 
   CirclesController(MethodChannel methodChannel, float density) {
     this.circleIdToController = new HashMap<>();
-    this.googleMapsCircleIdToDartCircleId = new HashMap<>();
+    this.googleMapsCircleIdToDartCircleId = new GoogleMapsIdRegistry();
     this.methodChannel = methodChannel;
     this.density = density;
   }
@@ -131,6 +131,39 @@ class Convert {
     }
   }
 
+  /**
+   * Returns the camera position a camera update moves to from {@code current}, or null if it
+   * depends on the size of the map view, as for bounds or scrolls.
+   */
+  static CameraPosition toCameraTarget(Object o, CameraPosition current) {
+    final List<?> data = toList(o);
+    switch (toString(data.get(0))) {
+      case "newCameraPosition":
+        return toCameraPosition(data.get(1));
+      case "newLatLng":
+        return new CameraPosition(
+            toLatLng(data.get(1)), current.zoom, current.tilt, current.bearing);
+      case "newLatLngZoom":
+        return new CameraPosition(
+            toLatLng(data.get(1)), toFloat(data.get(2)), current.tilt, current.bearing);
+      case "zoomBy":
+        if (data.size() != 2) {
+          return null;
+        }
+        return new CameraPosition(
+            current.target, current.zoom + toFloat(data.get(1)), current.tilt, current.bearing);
+      case "zoomIn":
+        return new CameraPosition(current.target, current.zoom + 1, current.tilt, current.bearing);
+      case "zoomOut":
+        return new CameraPosition(current.target, current.zoom - 1, current.tilt, current.bearing);
+      case "zoomTo":
+        return new CameraPosition(
+            current.target, toFloat(data.get(1)), current.tilt, current.bearing);
+      default:
+        return null;
+    }
+  }
+
   private static double toDouble(Object o) {
     return ((Number) o).doubleValue();
   }
@@ -143,6 +176,10 @@ class Convert {
     return (o == null) ? null : toFloat(o);
   }
 
+  private static long toLong(Object o) {
+    return ((Number) o).longValue();
+  }
+
   private static int toInt(Object o) {
     return ((Number) o).intValue();
   }
@@ -216,6 +253,17 @@ class Convert {
     return data;
   }
 
+  /** @param tiles the x, y and zoom of each requested tile, one after the other. */
+  static Map<String, Object> tileOverlayBatchArgumentsToJson(String tileOverlayId, int[] tiles) {
+    if (tileOverlayId == null) {
+      return null;
+    }
+    final Map<String, Object> data = new HashMap<>(2);
+    data.put("tileOverlayId", tileOverlayId);
+    data.put("tiles", tiles);
+    return data;
+  }
+
   static Object latLngToJson(LatLng latLng) {
     return Arrays.asList(latLng.latitude, latLng.longitude);
   }
@@ -403,7 +451,8 @@ class Convert {
       sink.setFlat(toBoolean(flat));
     }
     final Object icon = data.get("icon");
-    if (icon != null) {
+    // Markers with a count or price show a Cozy icon rendered by MarkersController instead.
+    if (icon != null && data.get("count") == null && data.get("price") == null) {
       sink.setIcon(toBitmapDescriptor(icon));
     }
 
@@ -451,6 +500,14 @@ class Convert {
   }
 
   static String interpretPolygonOptions(Object o, PolygonOptionsSink sink) {
+    return interpretPolygonOptions(o, sink, true);
+  }
+
+  /**
+   * @param geometry whether to decode the points and holes, which can be skipped when they are
+   *     known to be unchanged.
+   */
+  static String interpretPolygonOptions(Object o, PolygonOptionsSink sink, boolean geometry) {
     final Map<?, ?> data = toMap(o);
     final Object consumeTapEvents = data.get("consumeTapEvents");
     if (consumeTapEvents != null) {
@@ -481,11 +538,11 @@ class Convert {
       sink.setZIndex(toFloat(zIndex));
     }
     final Object points = data.get("points");
-    if (points != null) {
+    if (geometry && points != null) {
       sink.setPoints(toPoints(points));
     }
     final Object holes = data.get("holes");
-    if (holes != null) {
+    if (geometry && holes != null) {
       sink.setHoles(toHoles(holes));
     }
     final String polygonId = (String) data.get("polygonId");
@@ -592,17 +649,122 @@ class Convert {
     }
   }
 
-  private static List<LatLng> toPoints(Object o) {
+  /**
+   * Returns the points of a polyline or polygon, sent either as a list of [latitude, longitude]
+   * lists, as a packed array of latitudes and longitudes or as an encoded polyline string.
+   *
+   * <p>Coordinates keep their double precision: as floats, they would be off by up to a meter.
+   */
+  static List<LatLng> toPoints(Object o) {
+    if (o instanceof double[]) {
+      return toPoints((double[]) o);
+    }
+    if (o instanceof String) {
+      return decodePolyline((String) o);
+    }
     final List<?> data = toList(o);
-    final List<LatLng> points = new ArrayList<>(data.size());
+    final int size = data.size();
+    final List<LatLng> points = new ArrayList<>(size);
 
-    for (Object rawPoint : data) {
-      final List<?> point = toList(rawPoint);
-      points.add(new LatLng(toFloat(point.get(0)), toFloat(point.get(1))));
+    // The codec decodes lists as ArrayLists, which are indexed without an iterator per point.
+    for (int i = 0; i < size; i++) {
+      final List<?> point = toList(data.get(i));
+      points.add(new LatLng(toCoordinate(point.get(0)), toCoordinate(point.get(1))));
     }
     return points;
   }
 
+  /** Unboxes a coordinate, which the codec decodes as a Double unless it was sent as an int. */
+  private static double toCoordinate(Object o) {
+    return o instanceof Double ? (Double) o : toDouble(o);
+  }
+
+  /** Returns the points of a Float64List of latitudes and longitudes, one point after the other. */
+  static List<LatLng> toPoints(double[] data) {
+    final List<LatLng> points = new ArrayList<>(data.length / 2);
+    for (int i = 0; i + 1 < data.length; i += 2) {
+      points.add(new LatLng(data[i], data[i + 1]));
+    }
+    return points;
+  }
+
+  /**
+   * Decodes a string in the Encoded Polyline Algorithm Format of the Google Maps APIs, whose
+   * coordinates have 5 decimal places.
+   */
+  static List<LatLng> decodePolyline(String encoded) {
+    // Each coordinate takes at least one character, so a point takes at least two.
+    final List<LatLng> points = new ArrayList<>(encoded.length() / 2);
+    final int length = encoded.length();
+    int index = 0;
+    int latitude = 0;
+    int longitude = 0;
+    while (index < length) {
+      int result = 0;
+      int shift = 0;
+      int b;
+      do {
+        b = encoded.charAt(index++) - 63;
+        result |= (b & 0x1f) << shift;
+        shift += 5;
+      } while (b >= 0x20 && index < length);
+      // A latitude is followed by a longitude, and a set continuation bit by more characters.
+      if (b >= 0x20 || index >= length) {
+        throw new IllegalArgumentException("Truncated encoded polyline");
+      }
+      latitude += (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+      result = 0;
+      shift = 0;
+      do {
+        b = encoded.charAt(index++) - 63;
+        result |= (b & 0x1f) << shift;
+        shift += 5;
+      } while (b >= 0x20 && index < length);
+      if (b >= 0x20) {
+        throw new IllegalArgumentException("Truncated encoded polyline");
+      }
+      longitude += (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+      points.add(new LatLng(latitude / 1e5, longitude / 1e5));
+    }
+    return points;
+  }
+
+  /**
+   * Returns a 64 bit hash of the points and holes of a polygon as they were sent, without decoding
+   * them, to tell whether they changed.
+   */
+  static long toGeometryHash(Object points, Object holes) {
+    return hashGeometry(hashGeometry(17, points), holes);
+  }
+
+  private static long hashGeometry(long hash, Object o) {
+    // FNV-1a over 64 bit words.
+    final long prime = 0x100000001b3L;
+    if (o instanceof double[]) {
+      final double[] data = (double[]) o;
+      hash = (hash ^ 1) * prime;
+      for (double value : data) {
+        hash = (hash ^ Double.doubleToLongBits(value)) * prime;
+      }
+    } else if (o instanceof String) {
+      final String data = (String) o;
+      hash = (hash ^ 2) * prime;
+      for (int i = 0; i < data.length(); i++) {
+        hash = (hash ^ data.charAt(i)) * prime;
+      }
+    } else if (o instanceof List) {
+      final List<?> data = (List<?>) o;
+      hash = (hash ^ 3) * prime;
+      for (int i = 0; i < data.size(); i++) {
+        hash = hashGeometry(hash, data.get(i));
+      }
+    } else if (o instanceof Number) {
+      hash = (hash ^ Double.doubleToLongBits(((Number) o).doubleValue())) * prime;
+    }
+    // Ends each value, so that [[a, b], [c]] and [[a], [b, c]] differ.
+    return (hash ^ 4) * prime;
+  }
+
   private static List<List<LatLng>> toHoles(Object o) {
     final List<?> data = toList(o);
     final List<List<LatLng>> holes = new ArrayList<>(data.size());
@@ -679,6 +841,42 @@ class Convert {
     if (visible != null) {
       sink.setVisible(toBoolean(visible));
     }
+    final Object cacheVersion = data.get("cacheVersion");
+    if (cacheVersion != null) {
+      sink.setCacheVersion(cacheVersion.toString());
+    }
+    final Object memoryCacheSize = data.get("memoryCacheSize");
+    if (memoryCacheSize != null) {
+      sink.setMemoryCacheSize(toLong(memoryCacheSize));
+    }
+    final Object diskCacheSize = data.get("diskCacheSize");
+    if (diskCacheSize != null) {
+      sink.setDiskCacheSize(toLong(diskCacheSize));
+    }
+    final Object tileTimeout = data.get("tileTimeout");
+    if (tileTimeout != null) {
+      sink.setTileTimeout(toLong(tileTimeout));
+    }
+    final Object tileBatchWindow = data.get("tileBatchWindow");
+    if (tileBatchWindow != null) {
+      sink.setTileBatchWindow(toLong(tileBatchWindow));
+    }
+    final Object tileSize = data.get("tileSize");
+    if (tileSize != null) {
+      sink.setTileSize(toInt(tileSize));
+    }
+    final Object urlTemplate = data.get("urlTemplate");
+    if (urlTemplate != null) {
+      sink.setUrlTemplate(toString(urlTemplate));
+    }
+    final Object maxConnections = data.get("maxConnections");
+    if (maxConnections != null) {
+      sink.setMaxConnections(toInt(maxConnections));
+    }
+    final Object mbTilesPath = data.get("mbTilesPath");
+    if (mbTilesPath != null) {
+      sink.setMbTilesPath(toString(mbTilesPath));
+    }
     final String tileOverlayId = (String) data.get("tileOverlayId");
     if (tileOverlayId == null) {
       throw new IllegalArgumentException("tileOverlayId was null");
@@ -9,23 +9,52 @@ import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import android.util.SparseArray;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.res.ResourcesCompat;
 
 public class CozyMarkerBuilder {
+    // Price bubbles of similar width share one pre-rendered background template, up to this many
+    // pixels wider than the bubble; the surplus is cut out of the plain body of the bubble.
+    static final int BUBBLE_WIDTH_BUCKET = 16;
+    // Width of the rounded and blurred ends of a bubble, which are copied from the template as is.
+    static final int BUBBLE_END_WIDTH = 24;
+    static final int BUBBLE_PADDING = 32 * 2;
+    // Prices are made of these glyphs; their bounds give every bubble the same height.
+    private static final String BUBBLE_REFERENCE_TEXT = "$0123456789";
+
     private final int bubblePointSize;
+    private final Paint shadowPaint;
+    private final Paint backgroundPaint;
     private final Bitmap defaultClusterMarker;
     private final Paint clusterTextPaint;
     private final Paint bubbleTextPaint;
-    private final Rect clusterRect;
+    private final int bubbleBodyHeight;
+    private final float bubbleTextOffsetY;
+    private final SparseArray<Bitmap> bubbleTemplates;
+    private final ThreadLocal<Scratch> scratch =
+            new ThreadLocal<Scratch>() {
+                @Override
+                protected Scratch initialValue() {
+                    return new Scratch();
+                }
+            };
 
     CozyMarkerBuilder(int size, int bubblePointSize, Context context) {
         this.bubblePointSize = bubblePointSize;
-        clusterRect = new Rect();
+        shadowPaint = getShadowPaint();
+        backgroundPaint = getBackgroundColor();
         defaultClusterMarker = getClusterBitmap(size);
         clusterTextPaint = setTextPaint(size / 3f, context);
         bubbleTextPaint = setTextPaint(size / 4f, context);
+        Rect referenceRect = new Rect();
+        bubbleTextPaint.getTextBounds(
+                BUBBLE_REFERENCE_TEXT, 0, BUBBLE_REFERENCE_TEXT.length(), referenceRect);
+        bubbleBodyHeight = referenceRect.height() + BUBBLE_PADDING;
+        bubbleTextOffsetY =
+                (bubbleBodyHeight / 2f) + (referenceRect.height() / 2f) - referenceRect.bottom;
+        bubbleTemplates = new SparseArray<>();
     }
 
     @NonNull
@@ -59,23 +88,23 @@ public class CozyMarkerBuilder {
         return paint;
     }
 
-    private static Bitmap getClusterBitmap(int size) {
+    private Bitmap getClusterBitmap(int size) {
         Bitmap marker = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
         Canvas canvas = new Canvas(marker);
-        canvas.drawCircle(size / 2f, size / 2f, size / 2.2f, getShadowPaint());
-        canvas.drawCircle(size / 2f, size / 2f, size / 2.2f, getBackgroundColor());
+        canvas.drawCircle(size / 2f, size / 2f, size / 2.2f, shadowPaint);
+        canvas.drawCircle(size / 2f, size / 2f, size / 2.2f, backgroundPaint);
         return marker;
     }
 
     public Bitmap addClusterMarkerText(String text) {
+        Scratch scratch = this.scratch.get();
+        Rect clusterRect = scratch.textBounds;
         Bitmap marker = Bitmap.createBitmap(this.defaultClusterMarker);
-        Canvas canvas = new Canvas(marker);
-        clusterTextPaint.getTextBounds(text, 0, text.length(), clusterRect);
-        float width = marker.getWidth();
+        scratch.clusterTextPaint.getTextBounds(text, 0, text.length(), clusterRect);
         float height = marker.getHeight();
-        float dx = (width / 2f) - (clusterRect.width() / 2f) - clusterRect.left;
+        float dx = getCenteredTextX(marker.getWidth(), clusterRect);
         float dy = (height / 2f) + (clusterRect.height() / 2f) - clusterRect.bottom;
-        canvas.drawText(text, dx, dy, clusterTextPaint);
+        scratch.drawText(marker, text, dx, dy, scratch.clusterTextPaint);
         return marker;
     }
 
@@ -92,27 +121,127 @@ public class CozyMarkerBuilder {
         return pointer;
     }
 
+    /**
+     * Returns the blurred bubble background (body and pointer) from which bubbles {@code width}
+     * wide are drawn, rendering it on first use of its width bucket.
+     */
+    private synchronized Bitmap getBubbleTemplate(int width) {
+        int templateWidth = getBubbleTemplateWidth(width);
+        Bitmap template = bubbleTemplates.get(templateWidth);
+        if (template == null) {
+            template = createBubbleTemplate(templateWidth);
+            bubbleTemplates.put(templateWidth, template);
+        }
+        return template;
+    }
+
+    /**
+     * Returns the width of the template of the bubbles {@code width} wide: the end of its bucket,
+     * less a pixel when needed for the surplus to split evenly around the pointer.
+     */
+    static int getBubbleTemplateWidth(int width) {
+        int bucketEnd =
+                (width + BUBBLE_WIDTH_BUCKET - 1) / BUBBLE_WIDTH_BUCKET * BUBBLE_WIDTH_BUCKET;
+        return bucketEnd - ((bucketEnd - width) & 1);
+    }
+
+    private Bitmap createBubbleTemplate(int width) {
+        Bitmap template =
+                Bitmap.createBitmap(width, bubbleBodyHeight + bubblePointSize, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(template);
+        RectF bubble = new RectF(0, 0, width, bubbleBodyHeight);
+
+        canvas.drawRoundRect(bubble, 10, 10, shadowPaint);
+        canvas.drawRoundRect(bubble, 10, 10, backgroundPaint);
+        canvas.drawPath(getBubblePoint(template), backgroundPaint);
+        return template;
+    }
+
+    /**
+     * Returns the x at which to draw text with the given bounds so that its glyphs are centered
+     * in a marker of the given width.
+     */
+    static float getCenteredTextX(int width, Rect textBounds) {
+        return (width / 2f) - (textBounds.width() / 2f) - textBounds.left;
+    }
+
+    /** Returns the bounds of the glyphs of a bubble label, which must not be modified. */
+    Rect getBubbleTextBounds(String text) {
+        return scratch.get().bubbleTextBounds.getTextBounds(text);
+    }
+
+    /** Returns how many bubble labels the calling thread has measured rather than reused. */
+    int getBubbleTextBoundsMissCount() {
+        return scratch.get().bubbleTextBounds.getMissCount();
+    }
+
     public Bitmap addBubbleMarkerText(String text) {
-        Rect rect = new Rect();
-        bubbleTextPaint.getTextBounds(text, 0, text.length(), rect);
-        
-        int padding = 32 * 2;
-        int width = rect.width() + padding;
-        int height = rect.height() + padding + bubblePointSize;
-        
+        Scratch scratch = this.scratch.get();
+        Rect textBounds = scratch.bubbleTextBounds.getTextBounds(text);
+
+        Bitmap marker = getBubbleBackground(scratch, textBounds.width() + BUBBLE_PADDING);
+        drawBubbleText(scratch, marker, text, textBounds);
+        return marker;
+    }
+
+    /**
+     * Returns a bubble background exactly {@code width} wide, copied from its template without the
+     * surplus strips of plain body between the ends of the bubble and its pointer.
+     */
+    private Bitmap getBubbleBackground(Scratch scratch, int width) {
+        if (width / 2 - bubblePointSize < BUBBLE_END_WIDTH) {
+            // Too narrow to have plain body to cut around the pointer.
+            return createBubbleTemplate(width);
+        }
+        Bitmap template = getBubbleTemplate(width);
+        int templateWidth = template.getWidth();
+        if (templateWidth == width) {
+            return template.copy(Bitmap.Config.ARGB_8888, true);
+        }
+        int height = template.getHeight();
+        int cut = (templateWidth - width) / 2;
         Bitmap marker = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(marker);
-        RectF bubble = new RectF(0, 0, width, rect.height() + padding);
-        
-        canvas.drawRoundRect(bubble, 10, 10, getShadowPaint());
-        canvas.drawRoundRect(bubble, 10, 10, getBackgroundColor());
-        canvas.drawPath(getBubblePoint(marker), getBackgroundColor());
-        
-        float dx = (width / 2f) - (rect.width() / 2f) - rect.left;
-        float dy = ((rect.height() + padding) / 2f) + (rect.height() / 2f) - rect.bottom;
-
-        canvas.drawText(text, dx, dy, bubbleTextPaint);
+        scratch.canvas.setBitmap(marker);
+        int rightEnd = width - BUBBLE_END_WIDTH;
+        scratch.drawBitmap(template, 0, 0, BUBBLE_END_WIDTH, height);
+        scratch.drawBitmap(template, BUBBLE_END_WIDTH + cut, BUBBLE_END_WIDTH, rightEnd, height);
+        scratch.drawBitmap(template, templateWidth - BUBBLE_END_WIDTH, rightEnd, width, height);
+        scratch.canvas.setBitmap(null);
         return marker;
     }
 
-}
\ No newline at end of file
+    private void drawBubbleText(Scratch scratch, Bitmap marker, String text, Rect textBounds) {
+        float dx = getCenteredTextX(marker.getWidth(), textBounds);
+        scratch.drawText(marker, text, dx, bubbleTextOffsetY, scratch.bubbleTextPaint);
+    }
+
+    /**
+     * Drawing state owned by a single thread, so that measuring and drawing a marker allocates
+     * nothing but the marker bitmap itself.
+     */
+    private final class Scratch {
+        final Rect textBounds = new Rect();
+        final Rect src = new Rect();
+        final Rect dst = new Rect();
+        final Canvas canvas = new Canvas();
+        final Paint clusterTextPaint = new Paint(CozyMarkerBuilder.this.clusterTextPaint);
+        final Paint bubbleTextPaint = new Paint(CozyMarkerBuilder.this.bubbleTextPaint);
+        final TextBoundsCache bubbleTextBounds = new TextBoundsCache(bubbleTextPaint);
+
+        void drawText(Bitmap marker, String text, float x, float y, Paint paint) {
+            canvas.setBitmap(marker);
+            canvas.drawText(text, x, y, paint);
+            canvas.setBitmap(null);
+        }
+
+        /**
+         * Copies the columns of {@code source} from {@code sourceLeft} to the canvas columns from
+         * {@code left} to {@code right}.
+         */
+        void drawBitmap(Bitmap source, int sourceLeft, int left, int right, int height) {
+            src.set(sourceLeft, 0, sourceLeft + right - left, height);
+            dst.set(left, 0, right, height);
+            canvas.drawBitmap(source, src, dst, null);
+        }
+    }
+}
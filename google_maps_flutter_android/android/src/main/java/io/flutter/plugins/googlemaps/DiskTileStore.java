@@ -0,0 +1,238 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.util.Log;
+import com.google.android.gms.maps.model.Tile;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tiles of one overlay and cache version stored as files, one per tile, in a directory under the
+ * app cache directory.
+ *
+ * <p>Each tile may be stored with the HTTP validators of the response it came from, so that it can
+ * be revalidated once it expires. The least recently used tiles are deleted once the files exceed
+ * the size limit. Files of other cache versions of the overlay are deleted when the store is first
+ * used. Safe to use from the tile threads of the Maps SDK concurrently.
+ */
+class DiskTileStore {
+  /** A stored tile and the HTTP validators of the response it came from, if any. */
+  static final class Entry {
+    final Tile tile;
+    // Empty if the response had no such header.
+    final String etag;
+    final String lastModified;
+    // The time in milliseconds after which the tile has to be revalidated.
+    final long expiresAt;
+
+    Entry(Tile tile, String etag, String lastModified, long expiresAt) {
+      this.tile = tile;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private static final String TAG = "DiskTileStore";
+  private static final String SUFFIX = ".tile";
+
+  private final File overlayDirectory;
+  private final File directory;
+  private final long maxBytes;
+  // File name to file size, in access order. Built from the directory on first use.
+  private LinkedHashMap<String, Long> files;
+  private long byteSize;
+
+  /**
+   * @param cacheDirectory the root directory of the tile caches of all overlays.
+   * @param version the cache version; tiles stored under other versions are never returned.
+   */
+  DiskTileStore(File cacheDirectory, String tileOverlayId, String version, long maxBytes) {
+    this.overlayDirectory = new File(cacheDirectory, toFileName(tileOverlayId));
+    this.directory = new File(overlayDirectory, toFileName(version));
+    this.maxBytes = maxBytes;
+  }
+
+  /** Returns the stored tile, or null if there is none or it can't be read. */
+  Tile get(int x, int y, int zoom) {
+    final Entry entry = getEntry(x, y, zoom);
+    return entry != null ? entry.tile : null;
+  }
+
+  void put(int x, int y, int zoom, Tile tile) {
+    put(x, y, zoom, new Entry(tile, "", "", Long.MAX_VALUE));
+  }
+
+  /** Returns the stored tile and its validators, or null if there is none or it can't be read. */
+  Entry getEntry(int x, int y, int zoom) {
+    final String name = getFileName(x, y, zoom);
+    synchronized (this) {
+      if (getFiles().get(name) == null) {
+        return null;
+      }
+    }
+    try (DataInputStream input =
+        new DataInputStream(
+            new BufferedInputStream(new FileInputStream(new File(directory, name))))) {
+      final int width = input.readInt();
+      final int height = input.readInt();
+      final String etag = input.readUTF();
+      final String lastModified = input.readUTF();
+      final long expiresAt = input.readLong();
+      final byte[] data = new byte[input.readInt()];
+      input.readFully(data);
+      return new Entry(new Tile(width, height, data), etag, lastModified, expiresAt);
+    } catch (IOException e) {
+      Log.w(TAG, "Can't read tile " + name, e);
+      remove(name);
+      return null;
+    }
+  }
+
+  void put(int x, int y, int zoom, Entry entry) {
+    final Tile tile = entry.tile;
+    final String name = getFileName(x, y, zoom);
+    synchronized (this) {
+      getFiles();
+    }
+    // Written to a temporary file first, so that a reader never sees a partial tile.
+    final File temporary = new File(directory, name + "." + Thread.currentThread().getId());
+    try (DataOutputStream output =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+      output.writeInt(tile.width);
+      output.writeInt(tile.height);
+      output.writeUTF(entry.etag);
+      output.writeUTF(entry.lastModified);
+      output.writeLong(entry.expiresAt);
+      output.writeInt(tile.data.length);
+      output.write(tile.data);
+    } catch (IOException e) {
+      Log.w(TAG, "Can't write tile " + name, e);
+      temporary.delete();
+      return;
+    }
+    final File file = new File(directory, name);
+    synchronized (this) {
+      if (!temporary.renameTo(file)) {
+        temporary.delete();
+        return;
+      }
+      final Long previousSize = files.put(name, file.length());
+      if (previousSize != null) {
+        byteSize -= previousSize;
+      }
+      byteSize += file.length();
+      trimToSize();
+    }
+  }
+
+  synchronized boolean contains(int x, int y, int zoom) {
+    return getFiles().containsKey(getFileName(x, y, zoom));
+  }
+
+  synchronized long byteSize() {
+    return byteSize;
+  }
+
+  synchronized int size() {
+    return getFiles().size();
+  }
+
+  private synchronized void remove(String name) {
+    final Long size = getFiles().remove(name);
+    if (size != null) {
+      byteSize -= size;
+    }
+    new File(directory, name).delete();
+  }
+
+  private void trimToSize() {
+    final Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+    while (byteSize > maxBytes && iterator.hasNext()) {
+      final Map.Entry<String, Long> eldest = iterator.next();
+      new File(directory, eldest.getKey()).delete();
+      byteSize -= eldest.getValue();
+      iterator.remove();
+    }
+  }
+
+  private LinkedHashMap<String, Long> getFiles() {
+    if (files != null) {
+      return files;
+    }
+    files = new LinkedHashMap<>(16, 0.75f, true);
+    deleteOtherVersions();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      Log.w(TAG, "Can't create tile cache directory " + directory);
+    }
+    final File[] existing = directory.listFiles();
+    if (existing != null) {
+      // Oldest first, so that they are the first evicted.
+      Arrays.sort(existing, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+      for (File file : existing) {
+        if (file.getName().endsWith(SUFFIX)) {
+          files.put(file.getName(), file.length());
+          byteSize += file.length();
+        } else {
+          // A temporary file left behind by a write that didn't finish.
+          file.delete();
+        }
+      }
+    }
+    trimToSize();
+    return files;
+  }
+
+  private void deleteOtherVersions() {
+    final File[] versions = overlayDirectory.listFiles();
+    if (versions == null) {
+      return;
+    }
+    for (File version : versions) {
+      if (!version.equals(directory)) {
+        deleteRecursively(version);
+      }
+    }
+  }
+
+  private static void deleteRecursively(File file) {
+    final File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    file.delete();
+  }
+
+  private static String getFileName(int x, int y, int zoom) {
+    return zoom + "_" + x + "_" + y + SUFFIX;
+  }
+
+  /** Encodes an arbitrary string as a portable file name. */
+  private static String toFileName(String value) {
+    final StringBuilder name = new StringBuilder(value.length() + 1).append('v');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-') {
+        name.append(c);
+      } else {
+        name.append('_').append(Integer.toHexString(c)).append('_');
+      }
+    }
+    return name.toString();
+  }
+}
@@ -40,6 +40,7 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.platform.PlatformView;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -59,6 +60,7 @@ final class GoogleMapController
   private static final String TAG = "GoogleMapController";
   private final int id;
   private final MethodChannel methodChannel;
+  private final BinaryMessenger binaryMessenger;
   private final GoogleMapOptions options;
   @Nullable private MapView mapView;
   @Nullable private GoogleMap googleMap;
@@ -100,12 +102,19 @@ final class GoogleMapController
     methodChannel =
         new MethodChannel(binaryMessenger, "plugins.flutter.dev/google_maps_android_" + id);
     methodChannel.setMethodCallHandler(this);
+    this.binaryMessenger = binaryMessenger;
+    final TileDataChannel tileDataChannel = new TileDataChannel();
+    tileDataChannel.attach(binaryMessenger, id);
     this.lifecycleProvider = lifecycleProvider;
     this.markersController = new MarkersController(methodChannel, new CozyMarkerBuilder(174, 20, context));
     this.polygonsController = new PolygonsController(methodChannel, density);
     this.polylinesController = new PolylinesController(methodChannel, density);
     this.circlesController = new CirclesController(methodChannel, density);
-    this.tileOverlaysController = new TileOverlaysController(methodChannel);
+    this.tileOverlaysController =
+        new TileOverlaysController(
+            methodChannel,
+            tileDataChannel,
+            new File(context.getCacheDir(), "google_maps_flutter_tiles"));
   }
 
   @Override
@@ -176,7 +185,7 @@ final class GoogleMapController
         });
   }
 
-  private static void postFrameCallback(Runnable f) {
+  static void postFrameCallback(Runnable f) {
     Choreographer.getInstance()
         .postFrameCallback(
             new Choreographer.FrameCallback() {
@@ -299,6 +308,7 @@ final class GoogleMapController
         {
           final CameraUpdate cameraUpdate =
               Convert.toCameraUpdate(call.argument("cameraUpdate"), density);
+          tileOverlaysController.onCameraAnimate(call.argument("cameraUpdate"));
           animateCamera(cameraUpdate);
           result.success(null);
           break;
@@ -312,7 +322,7 @@ final class GoogleMapController
           markersController.changeMarkers(markersToChange);
           List<Object> markerIdsToRemove = call.argument("markerIdsToRemove");
           markersController.removeMarkers(markerIdsToRemove);
-          result.success(null);
+          markersController.notifyWhenApplied(result);
           break;
         }
       case "markers#showInfoWindow":
@@ -333,6 +343,71 @@ final class GoogleMapController
           markersController.isInfoWindowShown((String) markerId, result);
           break;
         }
+      case "markers#getIconCacheStats":
+        {
+          result.success(markersController.getIconCacheStats());
+          break;
+        }
+      case "markers#setClustering":
+        {
+          Boolean enabled = call.argument("enabled");
+          Number gridSize = call.argument("gridSize");
+          markersController.setClustering(
+              Boolean.TRUE.equals(enabled),
+              gridSize != null ? gridSize.doubleValue() : MarkerClusterer.DEFAULT_GRID_SIZE);
+          result.success(null);
+          break;
+        }
+      case "markers#setViewportCulling":
+        {
+          Boolean enabled = call.argument("enabled");
+          Number margin = call.argument("margin");
+          markersController.setViewportCulling(
+              Boolean.TRUE.equals(enabled),
+              margin != null ? margin.doubleValue() : MarkersController.DEFAULT_VIEWPORT_MARGIN);
+          result.success(null);
+          break;
+        }
+      case "markers#setPoolSize":
+        {
+          Number size = call.argument("size");
+          if (size == null || size.intValue() < 0) {
+            result.error("Invalid size", "setPoolSize called without a valid size", null);
+            break;
+          }
+          markersController.setMarkerPoolSize(size.intValue());
+          result.success(null);
+          break;
+        }
+      case "markers#setFrameBudget":
+        {
+          Number budgetMillis = call.argument("budgetMillis");
+          if (budgetMillis == null || budgetMillis.longValue() <= 0) {
+            result.error(
+                "Invalid budgetMillis", "setFrameBudget called without a valid budgetMillis", null);
+            break;
+          }
+          markersController.setFrameBudget(budgetMillis.longValue());
+          result.success(null);
+          break;
+        }
+      case "markers#getPoolStats":
+        {
+          result.success(markersController.getMarkerPoolStats());
+          break;
+        }
+      case "polygons#setHoleSimplification":
+        {
+          Boolean enabled = call.argument("enabled");
+          Number tolerance = call.argument("tolerance");
+          polygonsController.setHoleSimplification(
+              Boolean.TRUE.equals(enabled),
+              tolerance != null
+                  ? tolerance.doubleValue()
+                  : PolygonsController.DEFAULT_HOLE_SIMPLIFICATION_TOLERANCE);
+          result.success(null);
+          break;
+        }
       case "polygons#update":
         {
           invalidateMapIfNeeded();
@@ -345,6 +420,28 @@ final class GoogleMapController
           result.success(null);
           break;
         }
+      case "polylines#appendPoints":
+        {
+          invalidateMapIfNeeded();
+          String polylineId = call.argument("polylineId");
+          Number maxLength = call.argument("maxLength");
+          polylinesController.appendPoints(
+              polylineId, call.argument("points"), maxLength != null ? maxLength.intValue() : null);
+          result.success(null);
+          break;
+        }
+      case "polylines#setSimplification":
+        {
+          Boolean enabled = call.argument("enabled");
+          Number tolerance = call.argument("tolerance");
+          polylinesController.setSimplification(
+              Boolean.TRUE.equals(enabled),
+              tolerance != null
+                  ? tolerance.doubleValue()
+                  : PolylinesController.DEFAULT_SIMPLIFICATION_TOLERANCE);
+          result.success(null);
+          break;
+        }
       case "polylines#update":
         {
           invalidateMapIfNeeded();
@@ -480,6 +577,12 @@ final class GoogleMapController
           result.success(null);
           break;
         }
+      case "map#getTileOverlayMetrics":
+        {
+          String tileOverlayId = call.argument("tileOverlayId");
+          result.success(tileOverlaysController.getTileOverlayMetrics(tileOverlayId));
+          break;
+        }
       case "map#getTileOverlayInfo":
         {
           String tileOverlayId = call.argument("tileOverlayId");
@@ -520,6 +623,7 @@ final class GoogleMapController
 
   @Override
   public void onCameraMove() {
+    tileOverlaysController.onCameraMove();
     if (!trackCameraPosition) {
       return;
     }
@@ -530,6 +634,10 @@ final class GoogleMapController
 
   @Override
   public void onCameraIdle() {
+    markersController.onCameraIdle();
+    polylinesController.onCameraIdle();
+    polygonsController.onCameraIdle();
+    tileOverlaysController.onCameraIdle();
     methodChannel.invokeMethod("camera#onIdle", Collections.singletonMap("map", id));
   }
 
@@ -575,7 +683,12 @@ final class GoogleMapController
     }
     disposed = true;
     methodChannel.setMethodCallHandler(null);
+    TileDataChannel.detach(binaryMessenger, id);
     setGoogleMapListener(null);
+    markersController.dispose();
+    polylinesController.dispose();
+    polygonsController.dispose();
+    tileOverlaysController.dispose();
     destroyMapViewIfNecessary();
     Lifecycle lifecycle = lifecycleProvider.getLifecycle();
     if (lifecycle != null) {
@@ -0,0 +1,159 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the ids Google Maps gives to the markers, polylines, polygons or circles of a map to their
+ * Dart ids.
+ *
+ * <p>Google Maps ids are a type prefix followed by a sequence number, such as "m123". Only the
+ * number is kept, as the key of an open-addressing hash table, so a lookup from a tap or drag
+ * listener neither hashes the id string nor allocates. Ids of any other shape fall back to a
+ * regular map. Each registry holds the ids of a single type of object. Not thread safe.
+ */
+class GoogleMapsIdRegistry {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int NO_NUMBER = -1;
+
+  private int[] keys;
+  private String[] values;
+  private int size;
+  private final Map<String, String> otherIds;
+
+  GoogleMapsIdRegistry() {
+    this.keys = new int[INITIAL_CAPACITY];
+    this.values = new String[INITIAL_CAPACITY];
+    this.otherIds = new HashMap<>();
+  }
+
+  void put(String googleMapsId, String dartId) {
+    final int number = parseNumber(googleMapsId);
+    if (number == NO_NUMBER) {
+      otherIds.put(googleMapsId, dartId);
+      return;
+    }
+    // Keeps the load factor at or below one half.
+    if ((size + 1) * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+    int slot = indexOf(number);
+    while (values[slot] != null) {
+      if (keys[slot] == number) {
+        values[slot] = dartId;
+        return;
+      }
+      slot = (slot + 1) & (keys.length - 1);
+    }
+    keys[slot] = number;
+    values[slot] = dartId;
+    size++;
+  }
+
+  String get(String googleMapsId) {
+    final int number = parseNumber(googleMapsId);
+    if (number == NO_NUMBER) {
+      return otherIds.get(googleMapsId);
+    }
+    final int slot = findSlot(number);
+    return slot < 0 ? null : values[slot];
+  }
+
+  String remove(String googleMapsId) {
+    final int number = parseNumber(googleMapsId);
+    if (number == NO_NUMBER) {
+      return otherIds.remove(googleMapsId);
+    }
+    int slot = findSlot(number);
+    if (slot < 0) {
+      return null;
+    }
+    final String dartId = values[slot];
+    values[slot] = null;
+    size--;
+    // Shifts back the entries that probed past the freed slot, so that lookups never stop early.
+    final int mask = keys.length - 1;
+    int next = (slot + 1) & mask;
+    while (values[next] != null) {
+      final int home = indexOf(keys[next]);
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        keys[slot] = keys[next];
+        values[slot] = values[next];
+        values[next] = null;
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+    return dartId;
+  }
+
+  int size() {
+    return size + otherIds.size();
+  }
+
+  private int findSlot(int number) {
+    int slot = indexOf(number);
+    while (values[slot] != null) {
+      if (keys[slot] == number) {
+        return slot;
+      }
+      slot = (slot + 1) & (keys.length - 1);
+    }
+    return -1;
+  }
+
+  private int indexOf(int number) {
+    int hash = number * 0x9E3779B9;
+    hash ^= hash >>> 16;
+    return hash & (keys.length - 1);
+  }
+
+  private void resize(int capacity) {
+    final int[] oldKeys = keys;
+    final String[] oldValues = values;
+    keys = new int[capacity];
+    values = new String[capacity];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != null) {
+        int slot = indexOf(oldKeys[i]);
+        while (values[slot] != null) {
+          slot = (slot + 1) & (capacity - 1);
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Returns the sequence number of an id made of letters followed by digits, or {@link #NO_NUMBER}
+   * if the id has another shape or its number does not fit in an int.
+   */
+  static int parseNumber(String googleMapsId) {
+    final int length = googleMapsId.length();
+    int i = 0;
+    while (i < length && Character.isLetter(googleMapsId.charAt(i))) {
+      i++;
+    }
+    if (i == length || (googleMapsId.charAt(i) == '0' && i < length - 1)) {
+      // No number, or one with leading zeros that would collide with the number without them.
+      return NO_NUMBER;
+    }
+    long number = 0;
+    for (; i < length; i++) {
+      final char c = googleMapsId.charAt(i);
+      if (c < '0' || c > '9') {
+        return NO_NUMBER;
+      }
+      number = number * 10 + (c - '0');
+      if (number > Integer.MAX_VALUE) {
+        return NO_NUMBER;
+      }
+    }
+    return (int) number;
+  }
+}
@@ -0,0 +1,66 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations, to compute their percentiles.
+ *
+ * <p>Durations are counted in log-linear buckets: each power of two is split into {@link
+ * #SUB_BUCKETS} buckets of equal width, so a percentile is off by at most 1/16 of its value.
+ * Recording a duration is a single atomic increment.
+ */
+class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(indexOf(Long.MAX_VALUE) + 1);
+
+  void record(long duration) {
+    counts.incrementAndGet(indexOf(Math.max(duration, 0)));
+  }
+
+  /** Returns the duration below which {@code fraction} of the durations are, or 0 if none. */
+  long getPercentile(double fraction) {
+    long total = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      total += counts.get(i);
+    }
+    if (total == 0) {
+      return 0;
+    }
+    final long rank = Math.max((long) Math.ceil(fraction * total), 1);
+    long count = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      count += counts.get(i);
+      if (count >= rank) {
+        return getLowerBound(i) + getWidth(i) / 2;
+      }
+    }
+    return getLowerBound(counts.length() - 1);
+  }
+
+  static int indexOf(long duration) {
+    if (duration < SUB_BUCKETS) {
+      return (int) duration;
+    }
+    final int exponent = 63 - Long.numberOfLeadingZeros(duration);
+    final int subBucket = (int) (duration >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long getLowerBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    final int shift = index / SUB_BUCKETS - 1;
+    return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+  }
+
+  private static long getWidth(int index) {
+    return index < SUB_BUCKETS ? 1 : 1L << (index / SUB_BUCKETS - 1);
+  }
+}
@@ -0,0 +1,141 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups point markers into clusters using a square grid laid over the Web Mercator world at a
+ * zoom level.
+ *
+ * <p>The grid is anchored to the world rather than to the viewport, so the clusters of a zoom level
+ * only change when the markers do, not when the camera pans.
+ */
+class MarkerClusterer {
+  static final double DEFAULT_GRID_SIZE = 60;
+
+  private static final double TILE_SIZE = 256;
+
+  private final double gridSize;
+
+  /** @param gridSize the width of a grid cell, in logical pixels. */
+  MarkerClusterer(double gridSize) {
+    this.gridSize = gridSize;
+  }
+
+  List<Cluster> cluster(Collection<Item> items, int zoom) {
+    final double worldSize = TILE_SIZE * Math.pow(2, zoom);
+    final Map<Long, Cluster> cells = new LinkedHashMap<>();
+    for (Item item : items) {
+      final long cellX = (long) Math.floor(toWorldX(item.position, worldSize) / gridSize);
+      final long cellY = (long) Math.floor(toWorldY(item.position, worldSize) / gridSize);
+      final long cell = (cellX << 32) | (cellY & 0xffffffffL);
+      Cluster cluster = cells.get(cell);
+      if (cluster == null) {
+        cluster = new Cluster(cell);
+        cells.put(cell, cluster);
+      }
+      cluster.items.add(item);
+    }
+    return new ArrayList<>(cells.values());
+  }
+
+  /** Returns a cluster of its own for each marker, for when markers are not grouped. */
+  static List<Cluster> singletons(Collection<Item> items) {
+    final List<Cluster> clusters = new ArrayList<>(items.size());
+    for (Item item : items) {
+      final Cluster cluster = new Cluster(0);
+      cluster.items.add(item);
+      clusters.add(cluster);
+    }
+    return clusters;
+  }
+
+  /** Returns the key of the cluster made of the single marker {@code markerId}. */
+  static String getKey(String markerId) {
+    return "m:" + markerId;
+  }
+
+  /** Projects the longitude of {@code position} onto a world of {@code worldSize} pixels. */
+  static double toWorldX(LatLng position, double worldSize) {
+    return (position.longitude / 360 + 0.5) * worldSize;
+  }
+
+  /** Projects the latitude of {@code position} onto a world of {@code worldSize} pixels. */
+  static double toWorldY(LatLng position, double worldSize) {
+    // Clamp to avoid the singularity at the poles, like the map projection does.
+    final double sinLatitude =
+        Math.min(Math.max(Math.sin(Math.toRadians(position.latitude)), -0.9999), 0.9999);
+    return (0.5 - Math.log((1 + sinLatitude) / (1 - sinLatitude)) / (4 * Math.PI)) * worldSize;
+  }
+
+  /** A point marker, as received from Dart. */
+  static final class Item {
+    final String markerId;
+    final Object marker;
+    final LatLng position;
+
+    Item(String markerId, Object marker, LatLng position) {
+      this.markerId = markerId;
+      this.marker = marker;
+      this.position = position;
+    }
+  }
+
+  /** The markers that fall into one grid cell. */
+  static final class Cluster {
+    final long cell;
+    final List<Item> items = new ArrayList<>();
+
+    Cluster(long cell) {
+      this.cell = cell;
+    }
+
+    int size() {
+      return items.size();
+    }
+
+    /** Returns the centroid of the markers of the cluster. */
+    LatLng getPosition() {
+      double latitude = 0;
+      double longitude = 0;
+      for (Item item : items) {
+        latitude += item.position.latitude;
+        longitude += item.position.longitude;
+      }
+      return new LatLng(latitude / items.size(), longitude / items.size());
+    }
+
+    /**
+     * Returns a key that identifies the cluster as long as its cell, markers and their positions
+     * don't change, so that a cluster whose markers moved within its cell gets a new centroid.
+     */
+    String getKey() {
+      if (items.size() == 1) {
+        return MarkerClusterer.getKey(items.get(0).markerId);
+      }
+      long membersHash = 1;
+      for (Item item : items) {
+        membersHash = 31 * membersHash + item.markerId.hashCode();
+        membersHash = 31 * membersHash + Double.doubleToLongBits(item.position.latitude);
+        membersHash = 31 * membersHash + Double.doubleToLongBits(item.position.longitude);
+      }
+      return "c:" + cell + ":" + items.size() + ":" + membersHash;
+    }
+
+    List<String> getMarkerIds() {
+      final List<String> markerIds = new ArrayList<>(items.size());
+      for (Item item : items) {
+        markerIds.add(item.markerId);
+      }
+      return markerIds;
+    }
+  }
+}
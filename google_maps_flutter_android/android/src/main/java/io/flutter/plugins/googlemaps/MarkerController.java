@@ -7,6 +7,7 @@ package io.flutter.plugins.googlemaps;
 import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
 
 /** Controller of a single Marker on the map. */
 class MarkerController implements MarkerOptionsSink {
@@ -14,6 +15,7 @@ class MarkerController implements MarkerOptionsSink {
   private final Marker marker;
   private final String googleMapsMarkerId;
   private boolean consumeTapEvents;
+  private MarkerIconCache.Key iconKey;
 
   MarkerController(Marker marker, boolean consumeTapEvents) {
     this.marker = marker;
@@ -25,6 +27,26 @@ class MarkerController implements MarkerOptionsSink {
     marker.remove();
   }
 
+  /** Hands the marker over to {@code markerPool} instead of removing it from the map. */
+  void release(MarkerPool markerPool) {
+    markerPool.release(marker);
+  }
+
+  /** Applies all of {@code options} to the marker, as when reusing a pooled marker. */
+  void setOptions(MarkerOptions options) {
+    setPosition(options.getPosition());
+    setIcon(options.getIcon());
+    setAlpha(options.getAlpha());
+    setAnchor(options.getAnchorU(), options.getAnchorV());
+    setDraggable(options.isDraggable());
+    setFlat(options.isFlat());
+    setInfoWindowAnchor(options.getInfoWindowAnchorU(), options.getInfoWindowAnchorV());
+    setInfoWindowText(options.getTitle(), options.getSnippet());
+    setRotation(options.getRotation());
+    setZIndex(options.getZIndex());
+    setVisible(options.isVisible());
+  }
+
   @Override
   public void setAlpha(float alpha) {
     marker.setAlpha(alpha);
@@ -94,6 +116,15 @@ class MarkerController implements MarkerOptionsSink {
     return consumeTapEvents;
   }
 
+  /** Returns the key of the Cozy icon shown by the marker, or null if it uses its own icon. */
+  MarkerIconCache.Key getIconKey() {
+    return iconKey;
+  }
+
+  void setIconKey(MarkerIconCache.Key iconKey) {
+    this.iconKey = iconKey;
+  }
+
   public void showInfoWindow() {
     marker.showInfoWindow();
   }
@@ -0,0 +1,136 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of rendered Cozy marker icons.
+ *
+ * <p>Entries are evicted in least-recently-used order once either the entry count or the total
+ * byte size of the backing bitmaps exceeds its limit. Descriptors are shared between markers, so
+ * the backing bitmaps must not be recycled while they are cached.
+ */
+class MarkerIconCache {
+  static final String KIND_CLUSTER = "cluster";
+  static final String KIND_BUBBLE = "bubble";
+
+  static final int DEFAULT_MAX_ENTRIES = 256;
+  static final long DEFAULT_MAX_BYTES = 8 * 1024 * 1024;
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final LinkedHashMap<Key, Entry> entries;
+  private long byteSize;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  MarkerIconCache() {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+  }
+
+  MarkerIconCache(int maxEntries, long maxBytes) {
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /** Returns the cached descriptor for the key, or null if it has to be rendered. */
+  synchronized BitmapDescriptor get(Key key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.descriptor;
+  }
+
+  synchronized void put(Key key, BitmapDescriptor descriptor, int byteCount) {
+    Entry previous = entries.put(key, new Entry(descriptor, byteCount));
+    if (previous != null) {
+      byteSize -= previous.byteCount;
+    }
+    byteSize += byteCount;
+    trimToSize();
+  }
+
+  synchronized void clear() {
+    entries.clear();
+    byteSize = 0;
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  synchronized long byteSize() {
+    return byteSize;
+  }
+
+  synchronized Map<String, Object> getStats() {
+    final Map<String, Object> data = new HashMap<>(5);
+    data.put("hits", hits);
+    data.put("misses", misses);
+    data.put("evictions", evictions);
+    data.put("entries", entries.size());
+    data.put("bytes", byteSize);
+    return data;
+  }
+
+  private void trimToSize() {
+    Iterator<Entry> iterator = entries.values().iterator();
+    // Always keep the most recently inserted entry, even if it alone exceeds the byte limit.
+    while (entries.size() > 1 && (entries.size() > maxEntries || byteSize > maxBytes)) {
+      Entry eldest = iterator.next();
+      iterator.remove();
+      byteSize -= eldest.byteCount;
+      evictions++;
+    }
+  }
+
+  private static final class Entry {
+    final BitmapDescriptor descriptor;
+    final int byteCount;
+
+    Entry(BitmapDescriptor descriptor, int byteCount) {
+      this.descriptor = descriptor;
+      this.byteCount = byteCount;
+    }
+  }
+
+  /** Identifies a rendered icon by its marker kind and text. */
+  static final class Key {
+    final String kind;
+    final String text;
+
+    Key(String kind, String text) {
+      this.kind = kind;
+      this.text = text;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return kind.equals(other.kind) && text.equals(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * kind.hashCode() + text.hashCode();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.Marker;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hidden markers kept on the map to be reused instead of removing a marker and adding a new one,
+ * both of which are expensive on the main thread.
+ *
+ * <p>Only accessed from the main thread.
+ */
+class MarkerPool {
+  static final int DEFAULT_MAX_SIZE = 64;
+
+  private final ArrayDeque<Marker> markers;
+  private int maxSize;
+  private long hits;
+  private long freshAdds;
+  private long discards;
+
+  MarkerPool() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  MarkerPool(int maxSize) {
+    this.markers = new ArrayDeque<>();
+    this.maxSize = maxSize;
+  }
+
+  /** Returns a hidden marker to reuse, or null if one has to be added to the map. */
+  Marker acquire() {
+    final Marker marker = markers.poll();
+    if (marker == null) {
+      freshAdds++;
+    } else {
+      hits++;
+    }
+    return marker;
+  }
+
+  /** Hides the marker to reuse it later, or removes it from the map if the pool is full. */
+  void release(Marker marker) {
+    if (markers.size() >= maxSize) {
+      marker.remove();
+      discards++;
+      return;
+    }
+    marker.hideInfoWindow();
+    marker.setVisible(false);
+    marker.setDraggable(false);
+    markers.push(marker);
+  }
+
+  void setMaxSize(int maxSize) {
+    this.maxSize = maxSize;
+    while (markers.size() > maxSize) {
+      markers.pop().remove();
+      discards++;
+    }
+  }
+
+  /** Removes the pooled markers from the map. */
+  void clear() {
+    for (Marker marker : markers) {
+      marker.remove();
+    }
+    markers.clear();
+  }
+
+  int size() {
+    return markers.size();
+  }
+
+  Map<String, Object> getStats() {
+    final Map<String, Object> data = new HashMap<>(5);
+    data.put("hits", hits);
+    data.put("freshAdds", freshAdds);
+    data.put("discards", discards);
+    data.put("pooled", markers.size());
+    data.put("maxSize", maxSize);
+    return data;
+  }
+}
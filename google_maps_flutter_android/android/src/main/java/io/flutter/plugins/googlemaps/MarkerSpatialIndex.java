@@ -0,0 +1,162 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grid index of the markers kept off the map, used to find the markers of a region without
+ * scanning every marker.
+ *
+ * <p>Markers are bucketed into the cells of a fixed grid laid over the Web Mercator world. Not
+ * thread safe.
+ */
+class MarkerSpatialIndex {
+  // Cells per side of the grid; a cell is about 39 km wide at the equator.
+  private static final int GRID_SIZE = 1 << 10;
+
+  private final Map<String, Entry> entries = new LinkedHashMap<>();
+  private final Map<Long, Set<Entry>> cells = new HashMap<>();
+
+  int size() {
+    return entries.size();
+  }
+
+  boolean containsKey(String markerId) {
+    return entries.containsKey(markerId);
+  }
+
+  void put(MarkerClusterer.Item item) {
+    remove(item.markerId);
+    final Entry entry = new Entry(item);
+    entries.put(item.markerId, entry);
+    Set<Entry> cell = cells.get(entry.cell);
+    if (cell == null) {
+      cell = new LinkedHashSet<>();
+      cells.put(entry.cell, cell);
+    }
+    cell.add(entry);
+  }
+
+  MarkerClusterer.Item remove(String markerId) {
+    final Entry entry = entries.remove(markerId);
+    if (entry == null) {
+      return null;
+    }
+    final Set<Entry> cell = cells.get(entry.cell);
+    cell.remove(entry);
+    if (cell.isEmpty()) {
+      cells.remove(entry.cell);
+    }
+    return entry.item;
+  }
+
+  void clear() {
+    entries.clear();
+    cells.clear();
+  }
+
+  List<MarkerClusterer.Item> values() {
+    final List<MarkerClusterer.Item> items = new ArrayList<>(entries.size());
+    for (Entry entry : entries.values()) {
+      items.add(entry.item);
+    }
+    return items;
+  }
+
+  /**
+   * Returns the markers within {@code bounds}, grown on each side by {@code margin} times their
+   * width and height.
+   */
+  List<MarkerClusterer.Item> query(LatLngBounds bounds, double margin) {
+    double west = MarkerClusterer.toWorldX(bounds.southwest, 1);
+    double east = MarkerClusterer.toWorldX(bounds.northeast, 1);
+    if (east < west) {
+      // The bounds cross the antimeridian.
+      east += 1;
+    }
+    double north = MarkerClusterer.toWorldY(bounds.northeast, 1);
+    double south = MarkerClusterer.toWorldY(bounds.southwest, 1);
+    final double marginX = (east - west) * margin;
+    final double marginY = (south - north) * margin;
+    west -= marginX;
+    east += marginX;
+    north = Math.max(0, north - marginY);
+    south = Math.min(1, south + marginY);
+
+    final List<MarkerClusterer.Item> items = new ArrayList<>();
+    long minCellX = (long) Math.floor(west * GRID_SIZE);
+    long maxCellX = (long) Math.floor(east * GRID_SIZE);
+    if (maxCellX - minCellX + 1 >= GRID_SIZE) {
+      minCellX = 0;
+      maxCellX = GRID_SIZE - 1;
+    }
+    final long minCellY = toCell(north);
+    final long maxCellY = toCell(south);
+    if ((maxCellX - minCellX + 1) * (maxCellY - minCellY + 1) > cells.size()) {
+      // Fewer occupied cells than cells in the region, as when the whole world is visible.
+      for (Entry entry : entries.values()) {
+        if (entry.isWithin(west, east, north, south)) {
+          items.add(entry.item);
+        }
+      }
+      return items;
+    }
+    for (long cellX = minCellX; cellX <= maxCellX; cellX++) {
+      final long wrappedCellX = ((cellX % GRID_SIZE) + GRID_SIZE) % GRID_SIZE;
+      for (long cellY = minCellY; cellY <= maxCellY; cellY++) {
+        final Set<Entry> cell = cells.get(toKey(wrappedCellX, cellY));
+        if (cell == null) {
+          continue;
+        }
+        for (Entry entry : cell) {
+          if (entry.isWithin(west, east, north, south)) {
+            items.add(entry.item);
+          }
+        }
+      }
+    }
+    return items;
+  }
+
+  private static long toCell(double worldCoordinate) {
+    return Math.min(GRID_SIZE - 1, (long) Math.floor(worldCoordinate * GRID_SIZE));
+  }
+
+  private static long toKey(long cellX, long cellY) {
+    return cellX * GRID_SIZE + cellY;
+  }
+
+  private static final class Entry {
+    final MarkerClusterer.Item item;
+    final double x;
+    final double y;
+    final long cell;
+
+    Entry(MarkerClusterer.Item item) {
+      this.item = item;
+      this.x = MarkerClusterer.toWorldX(item.position, 1);
+      this.y = MarkerClusterer.toWorldY(item.position, 1);
+      this.cell = toKey(toCell(x), toCell(y));
+    }
+
+    boolean isWithin(double west, double east, double north, double south) {
+      if (y < north || y > south) {
+        return false;
+      }
+      // The region may extend past either side of the antimeridian.
+      return (x >= west && x <= east)
+          || (x + 1 >= west && x + 1 <= east)
+          || (x - 1 >= west && x - 1 <= east);
+    }
+  }
+}
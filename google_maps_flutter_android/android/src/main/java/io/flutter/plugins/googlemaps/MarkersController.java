@@ -5,65 +5,221 @@
 package io.flutter.plugins.googlemaps;
 
 import android.graphics.Bitmap;
-
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.Nullable;
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import io.flutter.plugin.common.MethodChannel;
-
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 class MarkersController {
 
+  private static final String TAG = "MarkersController";
+
+  // Default time spent applying markers#update per frame, leaving the rest of a 60 Hz frame to
+  // drawing.
+  static final long DEFAULT_FRAME_BUDGET_MILLIS = 8;
+
+  // Fraction of the visible region's width and height added on each side of it when culling.
+  static final double DEFAULT_VIEWPORT_MARGIN = 0.5;
+
   private final Map<String, MarkerController> markerIdToController;
-  private final Map<String, String> googleMapsMarkerIdToDartMarkerId;
+  private final GoogleMapsIdRegistry googleMapsMarkerIdToDartMarkerId;
   private final MethodChannel methodChannel;
   private GoogleMap googleMap;
   private final CozyMarkerBuilder cozyMarkerBuilder;
+  private final MarkerIconCache markerIconCache;
+  private final MarkerPool markerPool;
+  private final Executor iconExecutor;
+  private final Executor mainExecutor;
+  private final Executor frameExecutor;
+  private long frameBudgetNanos;
+  private boolean frameScheduled;
+  // Operations of markers#update that can't be applied yet because an earlier add is still
+  // rendering its icon. Only accessed from the main thread.
+  private final ArrayDeque<PendingOperation> pendingOperations;
+  // Clustering and culling state, only accessed from the main thread. While either is enabled, the
+  // markers of markers#update are kept in virtualMarkers and only the clusters of the current zoom,
+  // or the markers near the visible region, are on the map.
+  private MarkerClusterer markerClusterer;
+  private boolean viewportCulling;
+  private double viewportMargin;
+  private final MarkerSpatialIndex virtualMarkers;
+  private final Set<String> virtualMarkerIdsOnMap;
+  private final Map<String, Marker> clusterKeyToMarker;
+  private final Map<String, MarkerClusterer.Cluster> googleMapsMarkerIdToCluster;
+  private int clusterZoom;
+  private int refreshGeneration;
+  private boolean refreshRequested;
 
   MarkersController(MethodChannel methodChannel, CozyMarkerBuilder cozyMarkerBuilder) {
+    this(
+        methodChannel,
+        cozyMarkerBuilder,
+        new MarkerIconCache(),
+        // A single thread keeps CozyMarkerBuilder, which is not thread safe, confined.
+        Executors.newSingleThreadExecutor(),
+        new Handler(Looper.getMainLooper())::post,
+        GoogleMapController::postFrameCallback);
+  }
+
+  MarkersController(
+      MethodChannel methodChannel,
+      CozyMarkerBuilder cozyMarkerBuilder,
+      MarkerIconCache markerIconCache,
+      Executor iconExecutor,
+      Executor mainExecutor,
+      Executor frameExecutor) {
     this.markerIdToController = new HashMap<>();
-    this.googleMapsMarkerIdToDartMarkerId = new HashMap<>();
+    this.googleMapsMarkerIdToDartMarkerId = new GoogleMapsIdRegistry();
     this.methodChannel = methodChannel;
     this.cozyMarkerBuilder = cozyMarkerBuilder;
+    this.markerIconCache = markerIconCache;
+    this.markerPool = new MarkerPool();
+    this.iconExecutor = iconExecutor;
+    this.mainExecutor = mainExecutor;
+    this.frameExecutor = frameExecutor;
+    this.frameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_FRAME_BUDGET_MILLIS);
+    this.pendingOperations = new ArrayDeque<>();
+    this.virtualMarkers = new MarkerSpatialIndex();
+    this.virtualMarkerIdsOnMap = new HashSet<>();
+    this.clusterKeyToMarker = new HashMap<>();
+    this.googleMapsMarkerIdToCluster = new HashMap<>();
   }
 
-
-  private Bitmap createBitmapFromMarker(Object marker) {
+  private static MarkerIconCache.Key getIconKey(Object marker) {
     final Map<?, ?> data = (Map<?, ?>) marker;
-    if(data.get("count") != null) {
+    if (data.get("count") != null) {
       String count = Objects.requireNonNull(data.get("count")).toString();
-      return cozyMarkerBuilder.addClusterMarkerText(count);
-    };
-    if(data.get("price") != null) {
+      return new MarkerIconCache.Key(MarkerIconCache.KIND_CLUSTER, count);
+    }
+    if (data.get("price") != null) {
       String price = Objects.requireNonNull(data.get("price")).toString();
-      return cozyMarkerBuilder.addBubbleMarkerText(price);
-    };
+      return new MarkerIconCache.Key(MarkerIconCache.KIND_BUBBLE, price);
+    }
     return null;
   }
 
+  private BitmapDescriptor getIcon(MarkerIconCache.Key key) {
+    BitmapDescriptor descriptor = markerIconCache.get(key);
+    if (descriptor != null) {
+      return descriptor;
+    }
+    return renderIcon(key);
+  }
+
+  private BitmapDescriptor renderIcon(MarkerIconCache.Key key) {
+    Bitmap bitmap =
+        MarkerIconCache.KIND_CLUSTER.equals(key.kind)
+            ? cozyMarkerBuilder.addClusterMarkerText(key.text)
+            : cozyMarkerBuilder.addBubbleMarkerText(key.text);
+    BitmapDescriptor descriptor = BitmapDescriptorFactory.fromBitmap(bitmap);
+    // The bitmap stays referenced by the shared descriptor, so it is not recycled here.
+    markerIconCache.put(key, descriptor, bitmap.getByteCount());
+    return descriptor;
+  }
+
+  Map<String, Object> getIconCacheStats() {
+    return markerIconCache.getStats();
+  }
+
+  void setMarkerPoolSize(int maxSize) {
+    markerPool.setMaxSize(maxSize);
+  }
+
+  Map<String, Object> getMarkerPoolStats() {
+    return markerPool.getStats();
+  }
+
   void setGoogleMap(GoogleMap googleMap) {
     this.googleMap = googleMap;
   }
 
+  void dispose() {
+    // Completes the calls waiting in the queue, so that Dart doesn't wait for them forever.
+    for (PendingOperation pendingOperation : pendingOperations) {
+      pendingOperation.discard();
+    }
+    pendingOperations.clear();
+    markerPool.clear();
+    markerClusterer = null;
+    viewportCulling = false;
+    if (iconExecutor instanceof ExecutorService) {
+      ((ExecutorService) iconExecutor).shutdownNow();
+    }
+  }
+
+  /**
+   * Renders the icons of the markers on the icon executor, then adds the markers to the map on the
+   * main thread within the frame budget.
+   */
   void addMarkers(List<Object> markersToAdd) {
-    if (markersToAdd != null) {
+    if (markersToAdd == null) {
+      return;
+    }
+    if (isVirtualized()) {
       for (Object markerToAdd : markersToAdd) {
-        addMarker(markerToAdd);
+        if (markerToAdd != null) {
+          putVirtualMarker(markerToAdd);
+        }
+      }
+      requestRefresh();
+      return;
+    }
+    final List<PendingMarker> pendingMarkers = new ArrayList<>(markersToAdd.size());
+    for (Object markerToAdd : markersToAdd) {
+      if (markerToAdd == null) {
+        continue;
       }
+      PendingMarker pendingMarker = new PendingMarker(markerToAdd);
+      pendingMarkers.add(pendingMarker);
+      pendingOperations.add(pendingMarker);
+    }
+    if (pendingMarkers.isEmpty()) {
+      return;
     }
+    iconExecutor.execute(
+        () -> {
+          for (PendingMarker pendingMarker : pendingMarkers) {
+            pendingMarker.render();
+          }
+          mainExecutor.execute(this::applyPendingOperations);
+        });
   }
 
   void changeMarkers(List<Object> markersToChange) {
-    if (markersToChange != null) {
-      for (Object markerToChange : markersToChange) {
-        changeMarker(markerToChange);
+    if (markersToChange == null) {
+      return;
+    }
+    for (Object markerToChange : markersToChange) {
+      if (markerToChange == null) {
+        continue;
       }
+      if (isVirtualized() && virtualMarkers.containsKey(getMarkerId(markerToChange))) {
+        putVirtualMarker(markerToChange);
+        requestRefresh();
+      }
+      // Also updates a virtual marker if it is currently on the map outside of a cluster.
+      runInOrder(() -> changeMarker(markerToChange));
     }
   }
 
@@ -75,16 +231,91 @@ class MarkersController {
       if (rawMarkerId == null) {
         continue;
       }
-      String markerId = (String) rawMarkerId;
-      final MarkerController markerController = markerIdToController.remove(markerId);
-      if (markerController != null) {
-        markerController.remove();
-        googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+      if (isVirtualized() && virtualMarkers.remove((String) rawMarkerId) != null) {
+        requestRefresh();
+        continue;
+      }
+      runInOrder(() -> removeMarker((String) rawMarkerId));
+    }
+  }
+
+  private void removeMarker(String markerId) {
+    final MarkerController markerController = markerIdToController.remove(markerId);
+    if (markerController != null) {
+      markerController.release(markerPool);
+      googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+    }
+  }
+
+  /**
+   * Runs the operation once every earlier operation of markers#update has been applied, so that
+   * changes and removals never overtake the add of the same marker.
+   */
+  private void runInOrder(Runnable operation) {
+    runInOrder(operation, null);
+  }
+
+  /**
+   * @param onDiscard completes the call of the operation if the map is disposed before the
+   *     operation runs.
+   */
+  private void runInOrder(Runnable operation, @Nullable Runnable onDiscard) {
+    if (pendingOperations.isEmpty()) {
+      operation.run();
+    } else {
+      pendingOperations.add(new PendingOperation(operation, onDiscard));
+    }
+  }
+
+  /**
+   * Applies the ready operations at the head of the queue until the frame budget is spent, then
+   * continues on the next frame.
+   */
+  private void applyPendingOperations() {
+    final long deadline = System.nanoTime() + frameBudgetNanos;
+    while (!pendingOperations.isEmpty() && pendingOperations.peek().isReady()) {
+      pendingOperations.poll().apply();
+      if (System.nanoTime() >= deadline) {
+        scheduleNextFrame();
+        return;
       }
     }
   }
 
+  private void scheduleNextFrame() {
+    if (frameScheduled || pendingOperations.isEmpty() || !pendingOperations.peek().isReady()) {
+      // Operations that are still rendering schedule their own application.
+      return;
+    }
+    frameScheduled = true;
+    frameExecutor.execute(
+        () -> {
+          frameScheduled = false;
+          applyPendingOperations();
+        });
+  }
+
+  void setFrameBudget(long budgetMillis) {
+    frameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+  }
+
+  /**
+   * Completes {@code result} once every operation of markers#update received so far has been
+   * applied to the map.
+   */
+  void notifyWhenApplied(MethodChannel.Result result) {
+    refreshIfRequested();
+    // The markers are gone with the map, so there is nothing left to wait for.
+    runInOrder(() -> result.success(null), () -> result.success(null));
+  }
+
   void showMarkerInfoWindow(String markerId, MethodChannel.Result result) {
+    runInOrder(
+        () -> showMarkerInfoWindowNow(markerId, result),
+        () -> result.error("Disposed", "showInfoWindow called on a disposed map", null));
+  }
+
+  private void showMarkerInfoWindowNow(String markerId, MethodChannel.Result result) {
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
       markerController.showInfoWindow();
@@ -95,6 +326,12 @@ class MarkersController {
   }
 
   void hideMarkerInfoWindow(String markerId, MethodChannel.Result result) {
+    runInOrder(
+        () -> hideMarkerInfoWindowNow(markerId, result),
+        () -> result.error("Disposed", "hideInfoWindow called on a disposed map", null));
+  }
+
+  private void hideMarkerInfoWindowNow(String markerId, MethodChannel.Result result) {
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
       markerController.hideInfoWindow();
@@ -105,6 +342,12 @@ class MarkersController {
   }
 
   void isInfoWindowShown(String markerId, MethodChannel.Result result) {
+    runInOrder(
+        () -> isInfoWindowShownNow(markerId, result),
+        () -> result.error("Disposed", "isInfoWindowShown called on a disposed map", null));
+  }
+
+  private void isInfoWindowShownNow(String markerId, MethodChannel.Result result) {
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
       result.success(markerController.isInfoWindowShown());
@@ -116,7 +359,7 @@ class MarkersController {
   boolean onMarkerTap(String googleMarkerId) {
     String markerId = googleMapsMarkerIdToDartMarkerId.get(googleMarkerId);
     if (markerId == null) {
-      return false;
+      return onClusterTap(googleMarkerId);
     }
     methodChannel.invokeMethod("marker#onTap", Convert.markerIdToJson(markerId));
     MarkerController markerController = markerIdToController.get(markerId);
@@ -126,6 +369,20 @@ class MarkersController {
     return false;
   }
 
+  private boolean onClusterTap(String googleMarkerId) {
+    MarkerClusterer.Cluster cluster = googleMapsMarkerIdToCluster.get(googleMarkerId);
+    if (cluster == null) {
+      return false;
+    }
+    final Map<String, Object> data = new HashMap<>();
+    data.put("markerIds", cluster.getMarkerIds());
+    data.put("position", Convert.latLngToJson(cluster.getPosition()));
+    data.put("count", cluster.size());
+    methodChannel.invokeMethod("cluster#onTap", data);
+    // Like markers that don't consume their taps, the map also centers on the cluster.
+    return false;
+  }
+
   void onMarkerDragStart(String googleMarkerId, LatLng latLng) {
     String markerId = googleMapsMarkerIdToDartMarkerId.get(googleMarkerId);
     if (markerId == null) {
@@ -167,38 +424,209 @@ class MarkersController {
     methodChannel.invokeMethod("infoWindow#onTap", Convert.markerIdToJson(markerId));
   }
 
-
-
-  private void addMarker(Object marker) {
-    if (marker == null) {
-      return;
-    }
-    Bitmap bitmap = createBitmapFromMarker(marker);
-    MarkerBuilder markerBuilder = new MarkerBuilder();
-    String markerId = Convert.interpretMarkerOptions(marker, markerBuilder);
-    MarkerOptions options = markerBuilder.build();
-    options.icon(BitmapDescriptorFactory.fromBitmap(bitmap));
-    addMarker(markerId, options, markerBuilder.consumeTapEvents());
-    bitmap.recycle();
-  }
-
-  private void addMarker(String markerId, MarkerOptions markerOptions, boolean consumeTapEvents) {
-    final Marker marker = googleMap
-        .addMarker(markerOptions);
+  private void addMarker(
+      String markerId,
+      MarkerOptions markerOptions,
+      boolean consumeTapEvents,
+      MarkerIconCache.Key iconKey) {
+    final Marker marker = addMarkerToMap(markerOptions);
     MarkerController controller = new MarkerController(marker, consumeTapEvents);
+    controller.setIconKey(iconKey);
     markerIdToController.put(markerId, controller);
     googleMapsMarkerIdToDartMarkerId.put(marker.getId(), markerId);
   }
 
+  /** Reuses a pooled marker if there is one, otherwise adds a new marker to the map. */
+  private Marker addMarkerToMap(MarkerOptions markerOptions) {
+    final Marker marker = markerPool.acquire();
+    if (marker == null) {
+      return googleMap.addMarker(markerOptions);
+    }
+    new MarkerController(marker, false).setOptions(markerOptions);
+    return marker;
+  }
+
+  /**
+   * Applies the changed options to the existing marker. A changed price or count only swaps the
+   * icon of the marker, rendering it off the main thread if it isn't cached yet, and a removed
+   * one restores the icon of the marker, or the default icon if it has none.
+   */
   private void changeMarker(Object marker) {
     if (marker == null) {
       return;
     }
     String markerId = getMarkerId(marker);
     MarkerController markerController = markerIdToController.get(markerId);
-    if (markerController != null) {
+    if (markerController == null) {
+      return;
+    }
+    MarkerIconCache.Key iconKey = getIconKey(marker);
+    if (iconKey == null || iconKey.equals(markerController.getIconKey())) {
+      final boolean clearsCozyIcon = iconKey == null && markerController.getIconKey() != null;
       Convert.interpretMarkerOptions(marker, markerController);
+      if (clearsCozyIcon && ((Map<?, ?>) marker).get("icon") == null) {
+        // The price or count was removed and the marker has no icon of its own.
+        markerController.setIcon(BitmapDescriptorFactory.defaultMarker());
+      }
+      markerController.setIconKey(iconKey);
+      return;
+    }
+    BitmapDescriptor icon = markerIconCache.get(iconKey);
+    if (icon != null) {
+      changeMarker(markerController, marker, iconKey, icon);
+      return;
+    }
+    // Later operations wait behind the change until its icon has been rendered.
+    final PendingMarkerChange pendingChange =
+        new PendingMarkerChange(markerController, marker, iconKey);
+    pendingOperations.addFirst(pendingChange);
+    iconExecutor.execute(
+        () -> {
+          pendingChange.render();
+          mainExecutor.execute(this::applyPendingOperations);
+        });
+  }
+
+  private static void changeMarker(
+      MarkerController markerController,
+      Object marker,
+      MarkerIconCache.Key iconKey,
+      BitmapDescriptor icon) {
+    Convert.interpretMarkerOptions(marker, markerController);
+    markerController.setIcon(icon);
+    markerController.setIconKey(iconKey);
+  }
+
+  /**
+   * Enables or disables native clustering of the markers added from now on.
+   *
+   * <p>Markers already on the map when clustering is enabled are left alone.
+   *
+   * @param gridSize the width of the clustering grid cells, in logical pixels.
+   */
+  void setClustering(boolean enabled, double gridSize) {
+    markerClusterer = enabled ? new MarkerClusterer(gridSize) : null;
+    onVirtualizationChanged();
+  }
+
+  /**
+   * Enables or disables viewport culling of the markers added from now on. While it is enabled,
+   * only the markers within the visible region grown by {@code margin} are on the map.
+   *
+   * <p>Markers already on the map when culling is enabled are left alone. When combined with
+   * clustering, only the markers within the culled region are clustered.
+   *
+   * @param margin the fraction of the width and height of the visible region added on each side.
+   */
+  void setViewportCulling(boolean enabled, double margin) {
+    viewportCulling = enabled;
+    viewportMargin = margin;
+    onVirtualizationChanged();
+  }
+
+  private boolean isVirtualized() {
+    return markerClusterer != null || viewportCulling;
+  }
+
+  /** Adds every virtual marker to the map individually once neither mode is enabled anymore. */
+  private void onVirtualizationChanged() {
+    if (isVirtualized()) {
+      requestRefresh();
+      return;
+    }
+    if (virtualMarkers.size() == 0 && virtualMarkerIdsOnMap.isEmpty()) {
+      return;
+    }
+    final List<Object> markers = new ArrayList<>(virtualMarkers.size());
+    for (MarkerClusterer.Item item : virtualMarkers.values()) {
+      markers.add(item.marker);
+    }
+    virtualMarkers.clear();
+    // Drops any refresh that is still rendering.
+    refreshGeneration++;
+    runInOrder(this::removeVirtualMarkers);
+    addMarkers(markers);
+  }
+
+  /**
+   * Reconciles the markers on the map with the visible region when culling, or reclusters them if
+   * the integer zoom level of the camera changed.
+   */
+  void onCameraIdle() {
+    if (viewportCulling || (markerClusterer != null && getClusteringZoom() != clusterZoom)) {
+      requestRefresh();
+    }
+  }
+
+  private int getClusteringZoom() {
+    return (int) googleMap.getCameraPosition().zoom;
+  }
+
+  private void putVirtualMarker(Object marker) {
+    final String markerId = getMarkerId(marker);
+    final LatLng position = Convert.toLatLng(((Map<?, ?>) marker).get("position"));
+    virtualMarkers.put(new MarkerClusterer.Item(markerId, marker, position));
+  }
+
+  /** Refreshes once all the updates of the current main looper message have been received. */
+  private void requestRefresh() {
+    if (refreshRequested) {
+      return;
+    }
+    refreshRequested = true;
+    mainExecutor.execute(this::refreshIfRequested);
+  }
+
+  private void refreshIfRequested() {
+    if (!refreshRequested) {
+      return;
+    }
+    refreshRequested = false;
+    if (isVirtualized() && googleMap != null) {
+      refreshVirtualMarkers();
+    }
+  }
+
+  /**
+   * Computes the clusters of the current zoom and region on the icon executor, then replaces the
+   * clusters on the map that changed.
+   */
+  private void refreshVirtualMarkers() {
+    final MarkerClusterer clusterer = markerClusterer;
+    final int zoom = getClusteringZoom();
+    final List<MarkerClusterer.Item> items =
+        viewportCulling
+            ? virtualMarkers.query(
+                googleMap.getProjection().getVisibleRegion().latLngBounds, viewportMargin)
+            : virtualMarkers.values();
+    final Set<String> keysOnMap = new HashSet<>(clusterKeyToMarker.keySet());
+    for (String markerId : virtualMarkerIdsOnMap) {
+      keysOnMap.add(MarkerClusterer.getKey(markerId));
+    }
+    clusterZoom = zoom;
+    final PendingClusters pendingClusters = new PendingClusters(++refreshGeneration);
+    pendingOperations.add(pendingClusters);
+    iconExecutor.execute(
+        () -> {
+          pendingClusters.render(
+              clusterer != null
+                  ? clusterer.cluster(items, zoom)
+                  : MarkerClusterer.singletons(items),
+              keysOnMap);
+          mainExecutor.execute(this::applyPendingOperations);
+        });
+  }
+
+  private void removeVirtualMarkers() {
+    for (Marker marker : clusterKeyToMarker.values()) {
+      markerPool.release(marker);
+    }
+    clusterKeyToMarker.clear();
+    googleMapsMarkerIdToCluster.clear();
+    for (String markerId : virtualMarkerIdsOnMap) {
+      removeMarker(markerId);
     }
+    virtualMarkerIdsOnMap.clear();
   }
 
   @SuppressWarnings("unchecked")
@@ -206,4 +634,243 @@ class MarkersController {
     Map<String, Object> markerMap = (Map<String, Object>) marker;
     return (String) markerMap.get("markerId");
   }
+
+  /** An operation of markers#update, applied on the main thread in the order it was received. */
+  private static class PendingOperation {
+    private final Runnable operation;
+    @Nullable private final Runnable onDiscard;
+
+    PendingOperation(Runnable operation) {
+      this(operation, null);
+    }
+
+    PendingOperation(Runnable operation, @Nullable Runnable onDiscard) {
+      this.operation = operation;
+      this.onDiscard = onDiscard;
+    }
+
+    boolean isReady() {
+      return true;
+    }
+
+    void apply() {
+      operation.run();
+    }
+
+    /** Called instead of {@link #apply} if the map is disposed first. */
+    void discard() {
+      if (onDiscard != null) {
+        onDiscard.run();
+      }
+    }
+  }
+
+  /** A marker to add, whose options and icon are built on the icon executor. */
+  private final class PendingMarker extends PendingOperation {
+    private final Object marker;
+    private String markerId;
+    private MarkerOptions options;
+    private boolean consumeTapEvents;
+    private MarkerIconCache.Key iconKey;
+    private volatile boolean ready;
+
+    PendingMarker(Object marker) {
+      super(null);
+      this.marker = marker;
+    }
+
+    /** Called on the icon executor. */
+    void render() {
+      try {
+        MarkerBuilder markerBuilder = new MarkerBuilder();
+        markerId = Convert.interpretMarkerOptions(marker, markerBuilder);
+        options = markerBuilder.build();
+        consumeTapEvents = markerBuilder.consumeTapEvents();
+        iconKey = getIconKey(marker);
+      } catch (Throwable e) {
+        Log.e(TAG, "Unable to create marker " + marker, e);
+        options = null;
+      }
+      if (options != null && iconKey != null) {
+        try {
+          options.icon(getIcon(iconKey));
+        } catch (Throwable e) {
+          // Also out of memory errors, so that the operations queued behind this one still apply.
+          Log.e(TAG, "Unable to render icon of marker " + marker, e);
+          iconKey = null;
+        }
+      }
+      ready = true;
+    }
+
+    @Override
+    boolean isReady() {
+      return ready;
+    }
+
+    @Override
+    void apply() {
+      if (options != null) {
+        addMarker(markerId, options, consumeTapEvents, iconKey);
+      }
+    }
+  }
+
+  /**
+   * The clusters of a zoom level and region. The options of the clusters that are not on the map
+   * yet are built on the icon executor.
+   */
+  private final class PendingClusters extends PendingOperation {
+    private final int generation;
+    private final Map<String, MarkerClusterer.Cluster> clusters = new LinkedHashMap<>();
+    private final Map<String, PendingMarker> markersToAdd = new HashMap<>();
+    private final Map<String, MarkerOptions> clustersToAdd = new HashMap<>();
+    private volatile boolean ready;
+
+    PendingClusters(int generation) {
+      super(null);
+      this.generation = generation;
+    }
+
+    /** Called on the icon executor. */
+    void render(List<MarkerClusterer.Cluster> computedClusters, Set<String> keysOnMap) {
+      for (MarkerClusterer.Cluster cluster : computedClusters) {
+        final String key = cluster.getKey();
+        clusters.put(key, cluster);
+        if (keysOnMap.contains(key)) {
+          continue;
+        }
+        if (cluster.size() == 1) {
+          PendingMarker pendingMarker = new PendingMarker(cluster.items.get(0).marker);
+          pendingMarker.render();
+          markersToAdd.put(key, pendingMarker);
+          continue;
+        }
+        final MarkerOptions options = new MarkerOptions().position(cluster.getPosition());
+        try {
+          options
+              .icon(
+                  getIcon(
+                      new MarkerIconCache.Key(
+                          MarkerIconCache.KIND_CLUSTER, String.valueOf(cluster.size()))))
+              .anchor(0.5f, 0.5f);
+        } catch (Throwable e) {
+          // The cluster is shown with the default icon.
+          Log.e(TAG, "Unable to render cluster of " + cluster.getMarkerIds(), e);
+        }
+        clustersToAdd.put(key, options);
+      }
+      ready = true;
+    }
+
+    @Override
+    boolean isReady() {
+      return ready;
+    }
+
+    @Override
+    void apply() {
+      if (generation != refreshGeneration) {
+        // A newer clustering is on its way.
+        return;
+      }
+      final Iterator<Map.Entry<String, Marker>> clusterMarkers =
+          clusterKeyToMarker.entrySet().iterator();
+      while (clusterMarkers.hasNext()) {
+        Map.Entry<String, Marker> entry = clusterMarkers.next();
+        if (!clusters.containsKey(entry.getKey())) {
+          markerPool.release(entry.getValue());
+          googleMapsMarkerIdToCluster.remove(entry.getValue().getId());
+          clusterMarkers.remove();
+        }
+      }
+      final Iterator<String> markerIds = virtualMarkerIdsOnMap.iterator();
+      while (markerIds.hasNext()) {
+        String markerId = markerIds.next();
+        if (!clusters.containsKey(MarkerClusterer.getKey(markerId))) {
+          removeMarker(markerId);
+          markerIds.remove();
+        }
+      }
+      // Each new cluster is added by an operation of its own, so that adding them is spread over
+      // frames like the markers of markers#update.
+      final List<PendingOperation> adds =
+          new ArrayList<>(markersToAdd.size() + clustersToAdd.size());
+      for (PendingMarker pendingMarker : markersToAdd.values()) {
+        adds.add(new PendingOperation(() -> addVirtualMarker(pendingMarker)));
+      }
+      for (Map.Entry<String, MarkerOptions> entry : clustersToAdd.entrySet()) {
+        adds.add(new PendingOperation(() -> addCluster(entry.getKey(), entry.getValue())));
+      }
+      for (int i = adds.size() - 1; i >= 0; i--) {
+        pendingOperations.addFirst(adds.get(i));
+      }
+    }
+
+    private void addVirtualMarker(PendingMarker pendingMarker) {
+      if (generation != refreshGeneration
+          || pendingMarker.options == null
+          || virtualMarkerIdsOnMap.contains(pendingMarker.markerId)) {
+        return;
+      }
+      pendingMarker.apply();
+      virtualMarkerIdsOnMap.add(pendingMarker.markerId);
+    }
+
+    private void addCluster(String key, MarkerOptions options) {
+      if (generation != refreshGeneration || clusterKeyToMarker.containsKey(key)) {
+        return;
+      }
+      Marker marker = addMarkerToMap(options);
+      clusterKeyToMarker.put(key, marker);
+      googleMapsMarkerIdToCluster.put(marker.getId(), clusters.get(key));
+    }
+  }
+
+  /** A change of the price or count of a marker, whose new icon is rendered on the icon executor. */
+  private final class PendingMarkerChange extends PendingOperation {
+    private final MarkerController markerController;
+    private final Object marker;
+    private final MarkerIconCache.Key iconKey;
+    private BitmapDescriptor icon;
+    private volatile boolean ready;
+
+    PendingMarkerChange(
+        MarkerController markerController, Object marker, MarkerIconCache.Key iconKey) {
+      super(null);
+      this.markerController = markerController;
+      this.marker = marker;
+      this.iconKey = iconKey;
+    }
+
+    /** Called on the icon executor. */
+    void render() {
+      try {
+        // An earlier change may have rendered the same icon since this one was queued.
+        icon = getIcon(iconKey);
+      } catch (Throwable e) {
+        Log.e(TAG, "Unable to render icon of marker " + marker, e);
+      }
+      ready = true;
+    }
+
+    @Override
+    boolean isReady() {
+      return ready;
+    }
+
+    @Override
+    void apply() {
+      if (icon != null) {
+        changeMarker(markerController, marker, iconKey, icon);
+        return;
+      }
+      // The icon couldn't be rendered, so the marker falls back to its own icon or the default one.
+      Convert.interpretMarkerOptions(marker, markerController);
+      if (((Map<?, ?>) marker).get("icon") == null) {
+        markerController.setIcon(BitmapDescriptorFactory.defaultMarker());
+      }
+      markerController.setIconKey(null);
+    }
+  }
 }
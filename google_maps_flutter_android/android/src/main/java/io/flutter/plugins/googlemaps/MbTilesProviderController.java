@@ -0,0 +1,140 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDatabaseCorruptException;
+import android.database.sqlite.SQLiteException;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tile provider of offline overlays, which reads the tiles from a local MBTiles file instead of
+ * asking Dart for them.
+ *
+ * <p>The file is opened read-only on the first tile request. Every tile is read with the same
+ * query, which SQLite prepares once and keeps in the statement cache of the connection. MBTiles
+ * numbers the rows of tiles from the south, as in TMS, so the y coordinate of the Maps SDK is
+ * flipped.
+ *
+ * <p>A file that is missing or is not a valid MBTiles file has no tiles.
+ */
+class MbTilesProviderController extends AbstractTileProvider {
+
+  private static final String TAG = "MbTilesProvider";
+  // The columns of MBTiles files made of views have no type affinity, so the arguments, which are
+  // bound as text, are cast to match their integer values.
+  private static final String TILE_QUERY =
+      "SELECT tile_data FROM tiles WHERE zoom_level = CAST(? AS INTEGER)"
+          + " AND tile_column = CAST(? AS INTEGER) AND tile_row = CAST(? AS INTEGER)";
+
+  private final String path;
+  private final int tileSize;
+  // Guarded by this.
+  private SQLiteDatabase database;
+  private boolean unavailable;
+  private boolean disposed;
+  private final AtomicLong reads = new AtomicLong();
+  private final AtomicLong missingTiles = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+
+  /** @param tileCache the cache of the tiles read, which should only keep them in memory. */
+  MbTilesProviderController(
+      String tileOverlayId, String path, int tileSize, @Nullable TileCache tileCache) {
+    super(tileOverlayId, tileCache);
+    this.path = path;
+    this.tileSize = tileSize;
+  }
+
+  @Override
+  Tile loadTile(int x, int y, int zoom) {
+    final byte[] data;
+    synchronized (this) {
+      final SQLiteDatabase database = getDatabase();
+      if (database == null) {
+        return TileProvider.NO_TILE;
+      }
+      try (Cursor cursor =
+          database.rawQuery(
+              TILE_QUERY,
+              new String[] {
+                Integer.toString(zoom), Integer.toString(x), Long.toString(toTmsRow(y, zoom))
+              })) {
+        data = cursor.moveToFirst() ? cursor.getBlob(0) : null;
+      } catch (SQLiteDatabaseCorruptException e) {
+        onUnavailable(e);
+        return TileProvider.NO_TILE;
+      } catch (SQLiteException | IllegalStateException e) {
+        failures.incrementAndGet();
+        Log.e(TAG, String.format("Can't read tile: x = %d, y= %d, zoom = %d", x, y, zoom), e);
+        return null;
+      }
+    }
+    if (data == null) {
+      missingTiles.incrementAndGet();
+      return TileProvider.NO_TILE;
+    }
+    reads.incrementAndGet();
+    return new Tile(tileSize, tileSize, data);
+  }
+
+  /** Returns the database, or null if the provider is disposed or the file can't be read. */
+  private SQLiteDatabase getDatabase() {
+    if (database == null && !disposed && !unavailable) {
+      try {
+        database =
+            SQLiteDatabase.openDatabase(
+                path,
+                null,
+                SQLiteDatabase.OPEN_READONLY | SQLiteDatabase.NO_LOCALIZED_COLLATORS,
+                // The default handler deletes corrupt files, which belong to the app here.
+                corruptDatabase -> {});
+      } catch (SQLiteException e) {
+        onUnavailable(e);
+      }
+    }
+    return database;
+  }
+
+  private void onUnavailable(SQLiteException e) {
+    failures.incrementAndGet();
+    Log.e(TAG, "Can't read MBTiles file " + path, e);
+    unavailable = true;
+    if (database != null) {
+      database.close();
+      database = null;
+    }
+  }
+
+  @Override
+  synchronized void dispose() {
+    disposed = true;
+    if (database != null) {
+      database.close();
+      database = null;
+    }
+  }
+
+  @Override
+  Map<String, Object> getTileRequestStats() {
+    final Map<String, Object> data = new HashMap<>(3);
+    data.put("reads", reads.get());
+    data.put("missing", missingTiles.get());
+    data.put("failures", failures.get());
+    return data;
+  }
+
+  /** Returns the row of the tile at {@code y} in an MBTiles file, counted from the south. */
+  static long toTmsRow(int y, int zoom) {
+    return (1L << zoom) - 1 - y;
+  }
+}
+
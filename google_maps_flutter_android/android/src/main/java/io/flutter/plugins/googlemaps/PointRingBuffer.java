@@ -0,0 +1,96 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The points of a live polyline, to which points are appended and from which the oldest points are
+ * dropped once there are more than the max length.
+ *
+ * <p>Appending a point doesn't move the others: the points are kept in a circular array, which
+ * grows up to the max length.
+ */
+class PointRingBuffer {
+  static final int UNBOUNDED = 0;
+  private static final int INITIAL_CAPACITY = 64;
+
+  private LatLng[] points;
+  // The index of the oldest point.
+  private int start;
+  private int size;
+  private int maxLength;
+
+  /** @param maxLength the max number of points, or {@link #UNBOUNDED}. */
+  PointRingBuffer(int maxLength) {
+    this.maxLength = maxLength > 0 ? maxLength : Integer.MAX_VALUE;
+    this.points = new LatLng[Math.min(INITIAL_CAPACITY, this.maxLength)];
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** Changes the max number of points, dropping the oldest points if there are more. */
+  void setMaxLength(int maxLength) {
+    final int newMaxLength = maxLength > 0 ? maxLength : Integer.MAX_VALUE;
+    if (newMaxLength == this.maxLength) {
+      return;
+    }
+    final List<LatLng> kept = toList();
+    this.maxLength = newMaxLength;
+    points = new LatLng[Math.min(Math.max(kept.size(), INITIAL_CAPACITY), newMaxLength)];
+    start = 0;
+    size = 0;
+    addAll(kept);
+  }
+
+  void clear() {
+    start = 0;
+    size = 0;
+  }
+
+  void addAll(List<LatLng> newPoints) {
+    // Only the last points fit.
+    final int first = Math.max(newPoints.size() - maxLength, 0);
+    for (int i = first; i < newPoints.size(); i++) {
+      add(newPoints.get(i));
+    }
+  }
+
+  private void add(LatLng point) {
+    if (size == points.length && size < maxLength) {
+      grow();
+    }
+    if (size < points.length) {
+      points[(start + size) % points.length] = point;
+      size++;
+    } else {
+      // Full: the new point replaces the oldest one.
+      points[start] = point;
+      start = (start + 1) % points.length;
+    }
+  }
+
+  private void grow() {
+    final LatLng[] grown = new LatLng[(int) Math.min(points.length * 2L, maxLength)];
+    for (int i = 0; i < size; i++) {
+      grown[i] = points[(start + i) % points.length];
+    }
+    points = grown;
+    start = 0;
+  }
+
+  /** Returns a copy of the points, from the oldest to the newest. */
+  List<LatLng> toList() {
+    final List<LatLng> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(points[(start + i) % points.length]);
+    }
+    return list;
+  }
+}
@@ -6,14 +6,25 @@ package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Polygon;
+import java.util.ArrayList;
 import java.util.List;
 
 /** Controller of a single Polygon on the map. */
 class PolygonController implements PolygonOptionsSink {
+  private static final int NOT_SIMPLIFIED = -1;
+
   private final Polygon polygon;
   private final String googleMapsPolygonId;
   private final float density;
   private boolean consumeTapEvents;
+  // The hash of the points and holes as sent from Dart, see Convert.toGeometryHash.
+  private long geometryHash;
+  // The holes sent from Dart, and their simplifiers, zoom level and tolerance if the holes on the
+  // map are simplified.
+  private List<List<LatLng>> holes;
+  private List<PolylineSimplifier> holeSimplifiers;
+  private int simplifiedZoom = NOT_SIMPLIFIED;
+  private double simplifiedTolerance;
 
   PolygonController(Polygon polygon, boolean consumeTapEvents, float density) {
     this.polygon = polygon;
@@ -53,9 +64,65 @@ class PolygonController implements PolygonOptionsSink {
   }
 
   public void setHoles(List<List<LatLng>> holes) {
+    initHoles(holes);
     polygon.setHoles(holes);
   }
 
+  /** Sets the holes sent from Dart, which the polygon was created with. */
+  void initHoles(List<List<LatLng>> holes) {
+    this.holes = holes;
+    this.holeSimplifiers = null;
+    this.simplifiedZoom = NOT_SIMPLIFIED;
+  }
+
+  /** Returns true if the hash differs from the previous one, so the geometry has to be set. */
+  boolean setGeometryHash(long geometryHash) {
+    final boolean changed = geometryHash != this.geometryHash;
+    this.geometryHash = geometryHash;
+    return changed;
+  }
+
+  /**
+   * Returns the simplifiers of the holes, which are replaced whenever the holes change, or null if
+   * there are no holes or they are already simplified for the zoom level and tolerance.
+   */
+  List<PolylineSimplifier> getHoleSimplifiers(int zoom, double tolerance) {
+    if (holes == null
+        || holes.isEmpty()
+        || (zoom == simplifiedZoom && tolerance == simplifiedTolerance)) {
+      return null;
+    }
+    if (holeSimplifiers == null) {
+      holeSimplifiers = new ArrayList<>(holes.size());
+      for (List<LatLng> hole : holes) {
+        holeSimplifiers.add(PolylineSimplifier.forRing(hole));
+      }
+    }
+    return holeSimplifiers;
+  }
+
+  /** Draws holes simplified by {@code holeSimplifiers}, unless the holes changed since. */
+  void setSimplifiedHoles(
+      List<PolylineSimplifier> holeSimplifiers,
+      int zoom,
+      double tolerance,
+      List<List<LatLng>> simplifiedHoles) {
+    if (holeSimplifiers != this.holeSimplifiers) {
+      return;
+    }
+    simplifiedZoom = zoom;
+    simplifiedTolerance = tolerance;
+    polygon.setHoles(simplifiedHoles);
+  }
+
+  /** Draws all the holes again, if they were simplified. */
+  void clearSimplification() {
+    if (simplifiedZoom != NOT_SIMPLIFIED) {
+      simplifiedZoom = NOT_SIMPLIFIED;
+      polygon.setHoles(holes);
+    }
+  }
+
   @Override
   public void setVisible(boolean visible) {
     polygon.setVisible(visible);
@@ -4,33 +4,133 @@
 
 package io.flutter.plugins.googlemaps;
 
+import android.os.Handler;
+import android.os.Looper;
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Polygon;
 import com.google.android.gms.maps.model.PolygonOptions;
 import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Controller of the polygons of a map.
+ *
+ * <p>A change of a polygon only sets its points and holes again if they differ from the previous
+ * ones, which is found from a hash of their encoding without decoding them. If hole simplification
+ * is enabled, the holes are simplified for the integer zoom level of the camera on a background
+ * thread, like the polylines of {@link PolylinesController}, and those that shrink below the
+ * tolerance are dropped.
+ */
 class PolygonsController {
+  static final double DEFAULT_HOLE_SIMPLIFICATION_TOLERANCE = 1.0;
 
   private final Map<String, PolygonController> polygonIdToController;
-  private final Map<String, String> googleMapsPolygonIdToDartPolygonId;
+  private final GoogleMapsIdRegistry googleMapsPolygonIdToDartPolygonId;
   private final MethodChannel methodChannel;
   private final float density;
   private GoogleMap googleMap;
+  private final Executor simplificationExecutor;
+  private final Executor mainExecutor;
+  private boolean holeSimplification;
+  // In pixels.
+  private double holeSimplificationTolerance = DEFAULT_HOLE_SIMPLIFICATION_TOLERANCE;
 
   PolygonsController(MethodChannel methodChannel, float density) {
+    this(
+        methodChannel,
+        density,
+        Executors.newSingleThreadExecutor(),
+        new Handler(Looper.getMainLooper())::post);
+  }
+
+  PolygonsController(
+      MethodChannel methodChannel,
+      float density,
+      Executor simplificationExecutor,
+      Executor mainExecutor) {
     this.polygonIdToController = new HashMap<>();
-    this.googleMapsPolygonIdToDartPolygonId = new HashMap<>();
+    this.googleMapsPolygonIdToDartPolygonId = new GoogleMapsIdRegistry();
     this.methodChannel = methodChannel;
     this.density = density;
+    this.simplificationExecutor = simplificationExecutor;
+    this.mainExecutor = mainExecutor;
   }
 
   void setGoogleMap(GoogleMap googleMap) {
     this.googleMap = googleMap;
   }
 
+  void dispose() {
+    holeSimplification = false;
+    if (simplificationExecutor instanceof ExecutorService) {
+      ((ExecutorService) simplificationExecutor).shutdownNow();
+    }
+  }
+
+  /**
+   * Enables or disables the simplification of the holes of the polygons.
+   *
+   * @param tolerance how far from all their points the holes can be drawn, in pixels.
+   */
+  void setHoleSimplification(boolean enabled, double tolerance) {
+    holeSimplification = enabled;
+    holeSimplificationTolerance = tolerance;
+    for (PolygonController polygonController : polygonIdToController.values()) {
+      if (enabled) {
+        simplifyHoles(polygonController);
+      } else {
+        polygonController.clearSimplification();
+      }
+    }
+  }
+
+  /** Simplifies the holes again if the camera settled on another integer zoom level. */
+  void onCameraIdle() {
+    if (!holeSimplification) {
+      return;
+    }
+    for (PolygonController polygonController : polygonIdToController.values()) {
+      simplifyHoles(polygonController);
+    }
+  }
+
+  private void simplifyHoles(PolygonController polygonController) {
+    if (googleMap == null) {
+      return;
+    }
+    final int zoom = (int) googleMap.getCameraPosition().zoom;
+    final double tolerance = holeSimplificationTolerance;
+    final List<PolylineSimplifier> simplifiers =
+        polygonController.getHoleSimplifiers(zoom, tolerance);
+    if (simplifiers == null) {
+      return;
+    }
+    simplificationExecutor.execute(
+        () -> {
+          final List<List<LatLng>> holes = new ArrayList<>(simplifiers.size());
+          for (PolylineSimplifier simplifier : simplifiers) {
+            final List<LatLng> hole = simplifier.simplify(zoom, tolerance);
+            // A hole left with fewer points than a closed triangle is smaller than the tolerance.
+            if (hole.size() >= PolylineSimplifier.MIN_RING_SIZE) {
+              holes.add(hole);
+            }
+          }
+          mainExecutor.execute(
+              () -> {
+                if (holeSimplification) {
+                  polygonController.setSimplifiedHoles(simplifiers, zoom, tolerance, holes);
+                }
+              });
+        });
+  }
+
   void addPolygons(List<Object> polygonsToAdd) {
     if (polygonsToAdd != null) {
       for (Object polygonToAdd : polygonsToAdd) {
@@ -84,15 +184,23 @@ class PolygonsController {
     PolygonBuilder polygonBuilder = new PolygonBuilder(density);
     String polygonId = Convert.interpretPolygonOptions(polygon, polygonBuilder);
     PolygonOptions options = polygonBuilder.build();
-    addPolygon(polygonId, options, polygonBuilder.consumeTapEvents());
+    addPolygon(polygonId, options, polygonBuilder.consumeTapEvents(), getGeometryHash(polygon));
   }
 
   private void addPolygon(
-      String polygonId, PolygonOptions polygonOptions, boolean consumeTapEvents) {
+      String polygonId,
+      PolygonOptions polygonOptions,
+      boolean consumeTapEvents,
+      long geometryHash) {
     final Polygon polygon = googleMap.addPolygon(polygonOptions);
     PolygonController controller = new PolygonController(polygon, consumeTapEvents, density);
+    controller.setGeometryHash(geometryHash);
+    controller.initHoles(polygonOptions.getHoles());
     polygonIdToController.put(polygonId, controller);
     googleMapsPolygonIdToDartPolygonId.put(polygon.getId(), polygonId);
+    if (holeSimplification) {
+      simplifyHoles(controller);
+    }
   }
 
   private void changePolygon(Object polygon) {
@@ -102,10 +210,20 @@ class PolygonsController {
     String polygonId = getPolygonId(polygon);
     PolygonController polygonController = polygonIdToController.get(polygonId);
     if (polygonController != null) {
-      Convert.interpretPolygonOptions(polygon, polygonController);
+      // Boundaries often keep their geometry while their style changes.
+      final boolean geometryChanged = polygonController.setGeometryHash(getGeometryHash(polygon));
+      Convert.interpretPolygonOptions(polygon, polygonController, geometryChanged);
+      if (geometryChanged && holeSimplification) {
+        simplifyHoles(polygonController);
+      }
     }
   }
 
+  private static long getGeometryHash(Object polygon) {
+    final Map<?, ?> data = (Map<?, ?>) polygon;
+    return Convert.toGeometryHash(data.get("points"), data.get("holes"));
+  }
+
   @SuppressWarnings("unchecked")
   private static String getPolygonId(Object polygon) {
     Map<String, Object> polygonMap = (Map<String, Object>) polygon;
@@ -12,10 +12,20 @@ import java.util.List;
 
 /** Controller of a single Polyline on the map. */
 class PolylineController implements PolylineOptionsSink {
+  private static final int NOT_SIMPLIFIED = -1;
+
   private final Polyline polyline;
   private final String googleMapsPolylineId;
   private boolean consumeTapEvents;
   private final float density;
+  // The points sent from Dart, and the simplifier, zoom level and tolerance of the points on the
+  // map if they are simplified.
+  private List<LatLng> points;
+  private PolylineSimplifier simplifier;
+  private int simplifiedZoom = NOT_SIMPLIFIED;
+  private double simplifiedTolerance;
+  // The points once points have been appended, which keeps the max length of the polyline.
+  private PointRingBuffer pointBuffer;
 
   PolylineController(Polyline polyline, boolean consumeTapEvents, float density) {
     this.polyline = polyline;
@@ -61,9 +71,86 @@ class PolylineController implements PolylineOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
+    if (pointBuffer != null) {
+      pointBuffer.clear();
+      pointBuffer.addAll(points);
+      points = pointBuffer.toList();
+    }
+    replacePoints(points);
+  }
+
+  /**
+   * Appends points to the polyline, dropping its oldest points if it then has more than {@code
+   * maxLength}. A simplified polyline keeps its points on the map until the new points are
+   * simplified, so that it doesn't flicker through all its points on every append.
+   *
+   * @param maxLength the max number of points of the polyline from now on, {@link
+   *     PointRingBuffer#UNBOUNDED}, or null to keep the previous one.
+   */
+  void appendPoints(List<LatLng> newPoints, Integer maxLength) {
+    if (pointBuffer == null) {
+      pointBuffer = new PointRingBuffer(maxLength != null ? maxLength : PointRingBuffer.UNBOUNDED);
+      if (points != null) {
+        pointBuffer.addAll(points);
+      }
+    } else if (maxLength != null) {
+      pointBuffer.setMaxLength(maxLength);
+    }
+    pointBuffer.addAll(newPoints);
+    if (simplifiedZoom != NOT_SIMPLIFIED) {
+      points = pointBuffer.toList();
+      simplifier = null;
+      return;
+    }
+    replacePoints(pointBuffer.toList());
+  }
+
+  private void replacePoints(List<LatLng> points) {
+    this.points = points;
+    this.simplifier = null;
+    this.simplifiedZoom = NOT_SIMPLIFIED;
     polyline.setPoints(points);
   }
 
+  /** Sets the points sent from Dart, which the polyline was created with. */
+  void initPoints(List<LatLng> points) {
+    this.points = points;
+  }
+
+  /**
+   * Returns the simplifier of the points, which is replaced whenever the points change, or null if
+   * the points are already simplified for the zoom level and tolerance.
+   */
+  PolylineSimplifier getSimplifier(int zoom, double tolerance) {
+    if (points == null
+        || (simplifier != null && zoom == simplifiedZoom && tolerance == simplifiedTolerance)) {
+      return null;
+    }
+    if (simplifier == null) {
+      simplifier = new PolylineSimplifier(points);
+    }
+    return simplifier;
+  }
+
+  /** Draws points simplified by {@code simplifier}, unless the points changed since. */
+  void setSimplifiedPoints(
+      PolylineSimplifier simplifier, int zoom, double tolerance, List<LatLng> simplifiedPoints) {
+    if (simplifier != this.simplifier) {
+      return;
+    }
+    simplifiedZoom = zoom;
+    simplifiedTolerance = tolerance;
+    polyline.setPoints(simplifiedPoints);
+  }
+
+  /** Draws all the points again, if they were simplified. */
+  void clearSimplification() {
+    if (simplifiedZoom != NOT_SIMPLIFIED) {
+      simplifiedZoom = NOT_SIMPLIFIED;
+      polyline.setPoints(points);
+    }
+  }
+
   @Override
   public void setStartCap(Cap startCap) {
     polyline.setStartCap(startCap);
@@ -0,0 +1,145 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Douglas-Peucker simplification of the points of a polyline, for any zoom level.
+ *
+ * <p>The Douglas-Peucker recursion is run once, with no tolerance, to rank every point by the
+ * distance at which it is kept, in pixels of the world at zoom level 0. The points of a zoom level
+ * are then those whose distance, scaled to that zoom level, is above the tolerance. A point is
+ * never ranked above the point that split its segment, so the points of a zoom level are a subset
+ * of the points of the next one.
+ *
+ * <p>Not thread safe: the ranking is computed by the first call to {@link #simplify}.
+ */
+class PolylineSimplifier {
+  private static final double WORLD_SIZE = 256;
+  /** The fewest points of a closed ring with an area: three distinct points and the first again. */
+  static final int MIN_RING_SIZE = 4;
+
+  private final List<LatLng> points;
+  private double[] ranks;
+
+  PolylineSimplifier(List<LatLng> points) {
+    this.points = points;
+  }
+
+  /**
+   * Returns a simplifier of a ring, such as a hole of a polygon, which is closed first if it isn't.
+   * The closing edge is then simplified like the others: the ring is split at its point farthest
+   * from the first one, and the simplified rings are closed too.
+   */
+  static PolylineSimplifier forRing(List<LatLng> ring) {
+    if (ring.isEmpty() || ring.get(0).equals(ring.get(ring.size() - 1))) {
+      return new PolylineSimplifier(ring);
+    }
+    final List<LatLng> closedRing = new ArrayList<>(ring.size() + 1);
+    closedRing.addAll(ring);
+    closedRing.add(ring.get(0));
+    return new PolylineSimplifier(closedRing);
+  }
+
+  /**
+   * Returns the points to draw at an integer zoom level so that the polyline is off by at most
+   * {@code tolerance} pixels, or all the points if none can be dropped.
+   */
+  List<LatLng> simplify(int zoom, double tolerance) {
+    if (points.size() <= 2) {
+      return points;
+    }
+    if (ranks == null) {
+      ranks = rank(points);
+    }
+    final double minRank = tolerance / Math.pow(2, zoom);
+    int count = 0;
+    for (double rank : ranks) {
+      if (rank > minRank) {
+        count++;
+      }
+    }
+    if (count == points.size()) {
+      return points;
+    }
+    final List<LatLng> simplified = new ArrayList<>(count);
+    for (int i = 0; i < ranks.length; i++) {
+      if (ranks[i] > minRank) {
+        simplified.add(points.get(i));
+      }
+    }
+    return simplified;
+  }
+
+  /** Returns the distance at which each point is kept, in pixels at zoom level 0. */
+  static double[] rank(List<LatLng> points) {
+    final int size = points.size();
+    final double[] x = new double[size];
+    final double[] y = new double[size];
+    for (int i = 0; i < size; i++) {
+      final LatLng point = points.get(i);
+      x[i] = MarkerClusterer.toWorldX(point, WORLD_SIZE);
+      y[i] = MarkerClusterer.toWorldY(point, WORLD_SIZE);
+      // The map joins points through the shortest way around, which may cross the antimeridian.
+      if (i > 0) {
+        x[i] += Math.rint((x[i - 1] - x[i]) / WORLD_SIZE) * WORLD_SIZE;
+      }
+    }
+    final double[] ranks = new double[size];
+    ranks[0] = Double.POSITIVE_INFINITY;
+    ranks[size - 1] = Double.POSITIVE_INFINITY;
+    // Segments to split, as first index, last index and rank of the point that made them.
+    final int[] segments = new int[size * 2];
+    final double[] segmentRanks = new double[size];
+    int segmentCount = 0;
+    segments[0] = 0;
+    segments[1] = size - 1;
+    segmentRanks[0] = Double.POSITIVE_INFINITY;
+    segmentCount++;
+    while (segmentCount > 0) {
+      segmentCount--;
+      final int first = segments[segmentCount * 2];
+      final int last = segments[segmentCount * 2 + 1];
+      final double parentRank = segmentRanks[segmentCount];
+      int farthest = -1;
+      double maxDistance = -1;
+      for (int i = first + 1; i < last; i++) {
+        final double distance = distanceToSegment(x, y, i, first, last);
+        if (distance > maxDistance) {
+          maxDistance = distance;
+          farthest = i;
+        }
+      }
+      if (farthest < 0) {
+        continue;
+      }
+      final double rank = Math.min(maxDistance, parentRank);
+      ranks[farthest] = rank;
+      // A segment with n inner points leaves at most n - 1, so the stack never overflows.
+      segments[segmentCount * 2] = first;
+      segments[segmentCount * 2 + 1] = farthest;
+      segmentRanks[segmentCount++] = rank;
+      segments[segmentCount * 2] = farthest;
+      segments[segmentCount * 2 + 1] = last;
+      segmentRanks[segmentCount++] = rank;
+    }
+    return ranks;
+  }
+
+  private static double distanceToSegment(double[] x, double[] y, int point, int first, int last) {
+    final double dx = x[last] - x[first];
+    final double dy = y[last] - y[first];
+    final double lengthSquared = dx * dx + dy * dy;
+    double t = 0;
+    if (lengthSquared > 0) {
+      t = ((x[point] - x[first]) * dx + (y[point] - y[first]) * dy) / lengthSquared;
+      t = Math.max(0, Math.min(1, t));
+    }
+    return Math.hypot(x[point] - x[first] - t * dx, y[point] - y[first] - t * dy);
+  }
+}
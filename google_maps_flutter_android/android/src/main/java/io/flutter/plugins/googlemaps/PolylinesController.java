@@ -4,33 +4,123 @@
 
 package io.flutter.plugins.googlemaps;
 
+import android.os.Handler;
+import android.os.Looper;
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Polyline;
 import com.google.android.gms.maps.model.PolylineOptions;
 import io.flutter.plugin.common.MethodChannel;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Controller of the polylines of a map.
+ *
+ * <p>If simplification is enabled, the polylines keep all the points sent from Dart but only draw
+ * those needed at the integer zoom level of the camera, as found by {@link PolylineSimplifier}.
+ * The points are simplified on a background thread whenever the camera settles on another zoom
+ * level, and swapped on the main thread.
+ */
 class PolylinesController {
+  static final double DEFAULT_SIMPLIFICATION_TOLERANCE = 1.0;
 
   private final Map<String, PolylineController> polylineIdToController;
-  private final Map<String, String> googleMapsPolylineIdToDartPolylineId;
+  private final GoogleMapsIdRegistry googleMapsPolylineIdToDartPolylineId;
   private final MethodChannel methodChannel;
   private GoogleMap googleMap;
   private final float density;
+  private final Executor simplificationExecutor;
+  private final Executor mainExecutor;
+  private boolean simplification;
+  // In pixels.
+  private double simplificationTolerance = DEFAULT_SIMPLIFICATION_TOLERANCE;
 
   PolylinesController(MethodChannel methodChannel, float density) {
+    this(
+        methodChannel,
+        density,
+        Executors.newSingleThreadExecutor(),
+        new Handler(Looper.getMainLooper())::post);
+  }
+
+  PolylinesController(
+      MethodChannel methodChannel,
+      float density,
+      Executor simplificationExecutor,
+      Executor mainExecutor) {
     this.polylineIdToController = new HashMap<>();
-    this.googleMapsPolylineIdToDartPolylineId = new HashMap<>();
+    this.googleMapsPolylineIdToDartPolylineId = new GoogleMapsIdRegistry();
     this.methodChannel = methodChannel;
     this.density = density;
+    this.simplificationExecutor = simplificationExecutor;
+    this.mainExecutor = mainExecutor;
   }
 
   void setGoogleMap(GoogleMap googleMap) {
     this.googleMap = googleMap;
   }
 
+  void dispose() {
+    simplification = false;
+    if (simplificationExecutor instanceof ExecutorService) {
+      ((ExecutorService) simplificationExecutor).shutdownNow();
+    }
+  }
+
+  /**
+   * Enables or disables the simplification of the polylines.
+   *
+   * @param tolerance how far from all their points the polylines can be drawn, in pixels.
+   */
+  void setSimplification(boolean enabled, double tolerance) {
+    simplification = enabled;
+    simplificationTolerance = tolerance;
+    for (PolylineController polylineController : polylineIdToController.values()) {
+      if (enabled) {
+        simplify(polylineController);
+      } else {
+        polylineController.clearSimplification();
+      }
+    }
+  }
+
+  /** Simplifies the polylines again if the camera settled on another integer zoom level. */
+  void onCameraIdle() {
+    if (!simplification) {
+      return;
+    }
+    for (PolylineController polylineController : polylineIdToController.values()) {
+      simplify(polylineController);
+    }
+  }
+
+  private void simplify(PolylineController polylineController) {
+    if (googleMap == null) {
+      return;
+    }
+    final int zoom = (int) googleMap.getCameraPosition().zoom;
+    final double tolerance = simplificationTolerance;
+    final PolylineSimplifier simplifier = polylineController.getSimplifier(zoom, tolerance);
+    if (simplifier == null) {
+      return;
+    }
+    simplificationExecutor.execute(
+        () -> {
+          final List<LatLng> points = simplifier.simplify(zoom, tolerance);
+          mainExecutor.execute(
+              () -> {
+                if (simplification) {
+                  polylineController.setSimplifiedPoints(simplifier, zoom, tolerance, points);
+                }
+              });
+        });
+  }
+
   void addPolylines(List<Object> polylinesToAdd) {
     if (polylinesToAdd != null) {
       for (Object polylineToAdd : polylinesToAdd) {
@@ -47,6 +137,21 @@ class PolylinesController {
     }
   }
 
+  /**
+   * Appends points to a polyline, such as the latest positions of a tracked vehicle, without sending
+   * its previous points again.
+   */
+  void appendPoints(String polylineId, Object points, Integer maxLength) {
+    PolylineController polylineController = polylineIdToController.get(polylineId);
+    if (polylineController == null) {
+      return;
+    }
+    polylineController.appendPoints(Convert.toPoints(points), maxLength);
+    if (simplification) {
+      simplify(polylineController);
+    }
+  }
+
   void removePolylines(List<Object> polylineIdsToRemove) {
     if (polylineIdsToRemove == null) {
       return;
@@ -91,8 +196,12 @@ class PolylinesController {
       String polylineId, PolylineOptions polylineOptions, boolean consumeTapEvents) {
     final Polyline polyline = googleMap.addPolyline(polylineOptions);
     PolylineController controller = new PolylineController(polyline, consumeTapEvents, density);
+    controller.initPoints(polylineOptions.getPoints());
     polylineIdToController.put(polylineId, controller);
     googleMapsPolylineIdToDartPolylineId.put(polyline.getId(), polylineId);
+    if (simplification) {
+      simplify(controller);
+    }
   }
 
   private void changePolyline(Object polyline) {
@@ -103,6 +212,9 @@ class PolylinesController {
     PolylineController polylineController = polylineIdToController.get(polylineId);
     if (polylineController != null) {
       Convert.interpretPolylineOptions(polyline, polylineController);
+      if (simplification) {
+        simplify(polylineController);
+      }
     }
   }
 
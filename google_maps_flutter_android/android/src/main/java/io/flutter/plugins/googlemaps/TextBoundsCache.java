@@ -0,0 +1,62 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of the text bounds of the labels drawn with a {@link Paint}, so that a label
+ * shown by many markers is measured once.
+ *
+ * <p>Labels are measured as a whole with {@link Paint#getTextBounds}, so the bounds account for
+ * kerning and for the left bearing of the first glyph.
+ *
+ * <p>Not thread safe; each thread measures with its own instance.
+ */
+class TextBoundsCache {
+  static final int DEFAULT_MAX_ENTRIES = 256;
+
+  private final Paint paint;
+  private final LinkedHashMap<String, Rect> bounds;
+  private int missCount;
+
+  TextBoundsCache(Paint paint) {
+    this(paint, DEFAULT_MAX_ENTRIES);
+  }
+
+  TextBoundsCache(Paint paint, final int maxEntries) {
+    this.paint = paint;
+    this.bounds =
+        new LinkedHashMap<String, Rect>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Rect> eldest) {
+            return size() > maxEntries;
+          }
+        };
+  }
+
+  /** Returns the bounds of {@code text}, which must not be modified. */
+  Rect getTextBounds(String text) {
+    Rect textBounds = bounds.get(text);
+    if (textBounds == null) {
+      missCount++;
+      textBounds = new Rect();
+      paint.getTextBounds(text, 0, text.length(), textBounds);
+      bounds.put(text, textBounds);
+    }
+    return textBounds;
+  }
+
+  /**
+   * Returns how many labels have been measured, each of which allocated its bounds; labels found
+   * in the cache allocate nothing.
+   */
+  int getMissCount() {
+    return missCount;
+  }
+}
@@ -0,0 +1,155 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.Tile;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the tiles of one overlay, in front of its tile provider.
+ *
+ * <p>Tiles are kept in a memory LRU and, if a disk size is configured, in a {@link DiskTileStore}
+ * that survives {@code clearTileCache} and process restarts. Tiles are keyed by their coordinates
+ * and the cache version of the overlay, so changing the version invalidates every cached tile.
+ * Safe to use from the tile threads of the Maps SDK concurrently.
+ */
+class TileCache {
+  static final String DEFAULT_VERSION = "0";
+
+  private final File cacheDirectory;
+  private final String tileOverlayId;
+  private final long maxMemoryBytes;
+  private final long maxDiskBytes;
+  private final LinkedHashMap<Long, Tile> memory;
+  private long memoryByteSize;
+  private String version;
+  private DiskTileStore diskStore;
+  private long memoryHits;
+  private long diskHits;
+  private long misses;
+
+  TileCache(
+      File cacheDirectory,
+      String tileOverlayId,
+      String version,
+      long maxMemoryBytes,
+      long maxDiskBytes) {
+    this.cacheDirectory = cacheDirectory;
+    this.tileOverlayId = tileOverlayId;
+    this.maxMemoryBytes = maxMemoryBytes;
+    this.maxDiskBytes = maxDiskBytes;
+    this.memory = new LinkedHashMap<>(16, 0.75f, true);
+    setVersion(version);
+  }
+
+  /** Returns the cached tile, or null if it has to be fetched. */
+  Tile get(int x, int y, int zoom) {
+    final DiskTileStore diskStore;
+    synchronized (this) {
+      final Tile tile = memory.get(toKey(x, y, zoom));
+      if (tile != null) {
+        memoryHits++;
+        return tile;
+      }
+      diskStore = this.diskStore;
+    }
+    final Tile tile = diskStore != null ? diskStore.get(x, y, zoom) : null;
+    synchronized (this) {
+      if (tile == null) {
+        misses++;
+        return null;
+      }
+      diskHits++;
+      if (diskStore == this.diskStore) {
+        putInMemory(x, y, zoom, tile);
+      }
+    }
+    return tile;
+  }
+
+  /** Caches a tile with image data; tiles without data are not cached. */
+  void put(int x, int y, int zoom, Tile tile) {
+    if (tile == null || tile.data == null) {
+      return;
+    }
+    final DiskTileStore diskStore;
+    synchronized (this) {
+      putInMemory(x, y, zoom, tile);
+      diskStore = this.diskStore;
+    }
+    if (diskStore != null) {
+      diskStore.put(x, y, zoom, tile);
+    }
+  }
+
+  /** Returns true if the tile is cached, without counting a hit or a miss. */
+  boolean contains(int x, int y, int zoom) {
+    final DiskTileStore diskStore;
+    synchronized (this) {
+      if (memory.containsKey(toKey(x, y, zoom))) {
+        return true;
+      }
+      diskStore = this.diskStore;
+    }
+    return diskStore != null && diskStore.contains(x, y, zoom);
+  }
+
+  /**
+   * Changes the cache version, dropping the tiles cached under the previous one. Returns false if
+   * the version didn't change.
+   */
+  synchronized boolean setVersion(String version) {
+    if (version.equals(this.version)) {
+      return false;
+    }
+    this.version = version;
+    memory.clear();
+    memoryByteSize = 0;
+    diskStore =
+        maxDiskBytes > 0
+            ? new DiskTileStore(cacheDirectory, tileOverlayId, version, maxDiskBytes)
+            : null;
+    return true;
+  }
+
+  synchronized Map<String, Object> getStats() {
+    final Map<String, Object> data = new HashMap<>(8);
+    final long requests = memoryHits + diskHits + misses;
+    data.put("memoryHits", memoryHits);
+    data.put("diskHits", diskHits);
+    data.put("misses", misses);
+    data.put("hitRate", requests == 0 ? 0.0 : (memoryHits + diskHits) / (double) requests);
+    data.put("memoryEntries", memory.size());
+    data.put("memoryBytes", memoryByteSize);
+    data.put("diskBytes", diskStore != null ? diskStore.byteSize() : 0L);
+    data.put("version", version);
+    return data;
+  }
+
+  private void putInMemory(int x, int y, int zoom, Tile tile) {
+    if (tile.data.length > maxMemoryBytes) {
+      return;
+    }
+    final Tile previous = memory.put(toKey(x, y, zoom), tile);
+    if (previous != null) {
+      memoryByteSize -= previous.data.length;
+    }
+    memoryByteSize += tile.data.length;
+    final Iterator<Tile> iterator = memory.values().iterator();
+    while (memoryByteSize > maxMemoryBytes) {
+      memoryByteSize -= iterator.next().data.length;
+      iterator.remove();
+    }
+  }
+
+  /** Packs tile coordinates, which are below 2^zoom for zoom levels up to 29, into a long. */
+  private static long toKey(int x, int y, int zoom) {
+    return ((long) zoom << 58) | ((long) x << 29) | y;
+  }
+}
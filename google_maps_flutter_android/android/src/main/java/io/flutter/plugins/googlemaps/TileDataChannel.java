@@ -0,0 +1,113 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import io.flutter.plugin.common.BinaryMessenger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binary channel through which Dart sends the tiles requested by the tile providers of a map.
+ *
+ * <p>A tile request sent through the method channel with a "requestId" is answered by a binary
+ * message instead of a map-encoded result, so the image bytes are not wrapped in a standard codec
+ * message and decoded into intermediate objects. A message is made of the request id, width,
+ * height and data length as little endian 32 bit integers, followed by the data; a length of -1
+ * means there is no tile, as {@link TileProvider#NO_TILE}.
+ *
+ * <p>Messages are handled on a background task queue when the messenger supports it, so that
+ * copying the tile data doesn't wait for nor hold up the main thread.
+ */
+class TileDataChannel implements BinaryMessenger.BinaryMessageHandler {
+
+  private static final String TAG = "TileDataChannel";
+  private static final int HEADER_SIZE = 16;
+
+  /** Receives the tile of a request. */
+  interface Receiver {
+    void onTile(Tile tile);
+  }
+
+  private final AtomicInteger nextRequestId = new AtomicInteger();
+  private final Map<Integer, Receiver> receivers = new ConcurrentHashMap<>();
+
+  static String getChannelName(int mapId) {
+    return "plugins.flutter.dev/google_maps_android_tiles_" + mapId;
+  }
+
+  /** Handles the tile messages of a map, on a background task queue if possible. */
+  void attach(BinaryMessenger binaryMessenger, int mapId) {
+    final String channelName = getChannelName(mapId);
+    try {
+      binaryMessenger.setMessageHandler(
+          channelName, this, binaryMessenger.makeBackgroundTaskQueue());
+    } catch (UnsupportedOperationException e) {
+      binaryMessenger.setMessageHandler(channelName, this);
+    }
+  }
+
+  static void detach(BinaryMessenger binaryMessenger, int mapId) {
+    binaryMessenger.setMessageHandler(getChannelName(mapId), null);
+  }
+
+  /** Returns the id of a new request, whose tile is handed to the receiver. */
+  int register(Receiver receiver) {
+    final int requestId = nextRequestId.incrementAndGet();
+    receivers.put(requestId, receiver);
+    return requestId;
+  }
+
+  /** Forgets a request, once its tile was received or is no longer needed. */
+  void unregister(int requestId) {
+    receivers.remove(requestId);
+  }
+
+  @VisibleForTesting
+  int getReceiverCount() {
+    return receivers.size();
+  }
+
+  @Override
+  public void onMessage(@Nullable ByteBuffer message, @NonNull BinaryMessenger.BinaryReply reply) {
+    try {
+      if (message == null || message.remaining() < HEADER_SIZE) {
+        Log.e(TAG, "Invalid tile message");
+        return;
+      }
+      message.order(ByteOrder.LITTLE_ENDIAN);
+      final int requestId = message.getInt();
+      final int width = message.getInt();
+      final int height = message.getInt();
+      final int length = message.getInt();
+      final Receiver receiver = receivers.remove(requestId);
+      if (receiver == null) {
+        // The request timed out or was cancelled.
+        return;
+      }
+      if (length < 0) {
+        receiver.onTile(TileProvider.NO_TILE);
+      } else if (length > message.remaining()) {
+        Log.e(TAG, "Truncated tile message");
+        receiver.onTile(TileProvider.NO_TILE);
+      } else {
+        // The message buffer is only valid during this call, and a Tile needs an array.
+        final byte[] data = new byte[length];
+        message.get(data);
+        receiver.onTile(new Tile(width, height, data));
+      }
+    } finally {
+      reply.reply(null);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latency histogram of the tile requests of the Maps SDK to the provider of an
+ * overlay. Safe to update from the tile threads of the Maps SDK concurrently.
+ */
+class TileMetrics {
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong bytes = new AtomicLong();
+  private final AtomicLong noTiles = new AtomicLong();
+  private final AtomicLong unavailable = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  // In microseconds.
+  private final LatencyHistogram latencies = new LatencyHistogram();
+
+  /** Returns the start time of a request, to pass to {@link #onRequestEnd}. */
+  long onRequestStart() {
+    requests.incrementAndGet();
+    inFlight.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  void onRequestEnd(long startTime, Tile tile) {
+    latencies.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+    inFlight.decrementAndGet();
+    if (tile == null) {
+      unavailable.incrementAndGet();
+    } else if (tile == TileProvider.NO_TILE) {
+      noTiles.incrementAndGet();
+    } else if (tile.data != null) {
+      bytes.addAndGet(tile.data.length);
+    }
+  }
+
+  void onTimeout() {
+    timeouts.incrementAndGet();
+  }
+
+  Map<String, Object> toJson() {
+    final Map<String, Object> data = new HashMap<>(11);
+    data.put("requests", requests.get());
+    data.put("inFlight", inFlight.get());
+    data.put("bytes", bytes.get());
+    data.put("noTile", noTiles.get());
+    data.put("unavailable", unavailable.get());
+    data.put("timeouts", timeouts.get());
+    data.put("p50Micros", latencies.getPercentile(0.5));
+    data.put("p95Micros", latencies.getPercentile(0.95));
+    data.put("p99Micros", latencies.getPercentile(0.99));
+    return data;
+  }
+}
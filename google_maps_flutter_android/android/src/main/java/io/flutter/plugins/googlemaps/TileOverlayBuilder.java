@@ -6,10 +6,24 @@ package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.model.TileOverlayOptions;
 import com.google.android.gms.maps.model.TileProvider;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.File;
 
 class TileOverlayBuilder implements TileOverlaySink {
 
+  // The memory cache size of MBTiles overlays, if not configured.
+  static final long DEFAULT_MBTILES_MEMORY_CACHE_SIZE = 2 * 1024 * 1024;
+
   private final TileOverlayOptions tileOverlayOptions;
+  private String cacheVersion = TileCache.DEFAULT_VERSION;
+  private long memoryCacheSize;
+  private long diskCacheSize;
+  private long tileTimeoutMillis = AbstractTileProvider.DEFAULT_TILE_TIMEOUT_MILLIS;
+  private long tileBatchWindowMillis = TileProviderController.NO_BATCHING;
+  private int tileSize = 256;
+  private String urlTemplate;
+  private int maxConnections = UrlTileProviderController.DEFAULT_MAX_CONNECTIONS;
+  private String mbTilesPath;
 
   TileOverlayBuilder() {
     this.tileOverlayOptions = new TileOverlayOptions();
@@ -19,6 +33,62 @@ class TileOverlayBuilder implements TileOverlaySink {
     return tileOverlayOptions;
   }
 
+  /**
+   * Returns the tile provider of the overlay: one reading the tiles from an MBTiles file, one
+   * fetching them over HTTP if the overlay has a URL template, or one asking Dart for them
+   * otherwise.
+   */
+  AbstractTileProvider buildTileProvider(
+      MethodChannel methodChannel,
+      TileDataChannel tileDataChannel,
+      File cacheDirectory,
+      String tileOverlayId) {
+    final AbstractTileProvider tileProvider;
+    if (mbTilesPath != null) {
+      // The tiles are already on disk, so they are only cached in memory.
+      tileProvider =
+          new MbTilesProviderController(
+              tileOverlayId,
+              mbTilesPath,
+              tileSize,
+              new TileCache(
+                  cacheDirectory,
+                  tileOverlayId,
+                  cacheVersion,
+                  memoryCacheSize > 0 ? memoryCacheSize : DEFAULT_MBTILES_MEMORY_CACHE_SIZE,
+                  0));
+    } else if (urlTemplate != null) {
+      tileProvider =
+          new UrlTileProviderController(
+              tileOverlayId,
+              urlTemplate,
+              tileSize,
+              maxConnections,
+              cacheDirectory,
+              cacheVersion,
+              diskCacheSize);
+    } else {
+      tileProvider =
+          new TileProviderController(
+              methodChannel,
+              tileDataChannel,
+              tileOverlayId,
+              buildTileCache(cacheDirectory, tileOverlayId));
+    }
+    tileProvider.setTileTimeout(tileTimeoutMillis);
+    tileProvider.setBatchWindow(tileBatchWindowMillis);
+    return tileProvider;
+  }
+
+  /** Returns the cache of the tiles of the overlay, or null if caching is not configured. */
+  private TileCache buildTileCache(File cacheDirectory, String tileOverlayId) {
+    if (memoryCacheSize <= 0 && diskCacheSize <= 0) {
+      return null;
+    }
+    return new TileCache(
+        cacheDirectory, tileOverlayId, cacheVersion, memoryCacheSize, diskCacheSize);
+  }
+
   @Override
   public void setFadeIn(boolean fadeIn) {
     tileOverlayOptions.fadeIn(fadeIn);
@@ -43,4 +113,49 @@ class TileOverlayBuilder implements TileOverlaySink {
   public void setTileProvider(TileProvider tileProvider) {
     tileOverlayOptions.tileProvider(tileProvider);
   }
+
+  @Override
+  public void setCacheVersion(String cacheVersion) {
+    this.cacheVersion = cacheVersion;
+  }
+
+  @Override
+  public void setMemoryCacheSize(long memoryCacheSize) {
+    this.memoryCacheSize = memoryCacheSize;
+  }
+
+  @Override
+  public void setDiskCacheSize(long diskCacheSize) {
+    this.diskCacheSize = diskCacheSize;
+  }
+
+  @Override
+  public void setTileTimeout(long tileTimeoutMillis) {
+    this.tileTimeoutMillis = tileTimeoutMillis;
+  }
+
+  @Override
+  public void setTileBatchWindow(long tileBatchWindowMillis) {
+    this.tileBatchWindowMillis = tileBatchWindowMillis;
+  }
+
+  @Override
+  public void setTileSize(int tileSize) {
+    this.tileSize = tileSize;
+  }
+
+  @Override
+  public void setUrlTemplate(String urlTemplate) {
+    this.urlTemplate = urlTemplate;
+  }
+
+  @Override
+  public void setMaxConnections(int maxConnections) {
+    this.maxConnections = maxConnections;
+  }
+
+  @Override
+  public void setMbTilesPath(String mbTilesPath) {
+    this.mbTilesPath = mbTilesPath;
+  }
 }
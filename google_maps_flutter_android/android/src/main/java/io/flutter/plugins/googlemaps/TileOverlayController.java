@@ -12,13 +12,16 @@ import java.util.Map;
 class TileOverlayController implements TileOverlaySink {
 
   private final TileOverlay tileOverlay;
+  private final AbstractTileProvider tileProvider;
 
-  TileOverlayController(TileOverlay tileOverlay) {
+  TileOverlayController(TileOverlay tileOverlay, AbstractTileProvider tileProvider) {
     this.tileOverlay = tileOverlay;
+    this.tileProvider = tileProvider;
   }
 
   void remove() {
     tileOverlay.remove();
+    tileProvider.dispose();
   }
 
   void clearTileCache() {
@@ -35,6 +38,22 @@ class TileOverlayController implements TileOverlaySink {
     return tileOverlayInfo;
   }
 
+  Map<String, Object> getTileOverlayMetrics() {
+    return tileProvider.getTileMetrics();
+  }
+
+  boolean isVisible() {
+    return tileOverlay.isVisible();
+  }
+
+  AbstractTileProvider getTileProvider() {
+    return tileProvider;
+  }
+
+  void setViewport(TileViewport viewport) {
+    tileProvider.setViewport(viewport);
+  }
+
   @Override
   public void setFadeIn(boolean fadeIn) {
     tileOverlay.setFadeIn(fadeIn);
@@ -59,4 +78,52 @@ class TileOverlayController implements TileOverlaySink {
   public void setTileProvider(TileProvider tileProvider) {
     // You can not change tile provider after creation
   }
+
+  @Override
+  public void setCacheVersion(String cacheVersion) {
+    if (tileProvider.setCacheVersion(cacheVersion)) {
+      // Makes the Maps SDK request the tiles of the new version.
+      tileOverlay.clearTileCache();
+    }
+  }
+
+  @Override
+  public void setMemoryCacheSize(long memoryCacheSize) {
+    // You can not change the cache size after creation
+  }
+
+  @Override
+  public void setDiskCacheSize(long diskCacheSize) {
+    // You can not change the cache size after creation
+  }
+
+  @Override
+  public void setTileTimeout(long tileTimeoutMillis) {
+    tileProvider.setTileTimeout(tileTimeoutMillis);
+  }
+
+  @Override
+  public void setTileBatchWindow(long tileBatchWindowMillis) {
+    tileProvider.setBatchWindow(tileBatchWindowMillis);
+  }
+
+  @Override
+  public void setTileSize(int tileSize) {
+    // You can not change the tile size after creation
+  }
+
+  @Override
+  public void setUrlTemplate(String urlTemplate) {
+    // You can not change tile provider after creation
+  }
+
+  @Override
+  public void setMaxConnections(int maxConnections) {
+    // You can not change the connection limit after creation
+  }
+
+  @Override
+  public void setMbTilesPath(String mbTilesPath) {
+    // You can not change tile provider after creation
+  }
 }
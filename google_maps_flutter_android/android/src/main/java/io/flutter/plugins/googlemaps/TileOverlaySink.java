@@ -17,4 +17,22 @@ interface TileOverlaySink {
   void setVisible(boolean visible);
 
   void setTileProvider(TileProvider tileProvider);
+
+  void setCacheVersion(String cacheVersion);
+
+  void setMemoryCacheSize(long memoryCacheSize);
+
+  void setDiskCacheSize(long diskCacheSize);
+
+  void setTileTimeout(long tileTimeoutMillis);
+
+  void setTileBatchWindow(long tileBatchWindowMillis);
+
+  void setTileSize(int tileSize);
+
+  void setUrlTemplate(String urlTemplate);
+
+  void setMaxConnections(int maxConnections);
+
+  void setMbTilesPath(String mbTilesPath);
 }
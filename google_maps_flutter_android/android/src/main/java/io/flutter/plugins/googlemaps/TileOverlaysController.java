@@ -5,9 +5,14 @@
 package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.TileOverlay;
 import com.google.android.gms.maps.model.TileOverlayOptions;
 import io.flutter.plugin.common.MethodChannel;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,11 +21,17 @@ class TileOverlaysController {
 
   private final Map<String, TileOverlayController> tileOverlayIdToController;
   private final MethodChannel methodChannel;
+  private final TileDataChannel tileDataChannel;
+  private final File tileCacheDirectory;
+  private TilePrefetcher tilePrefetcher;
   private GoogleMap googleMap;
 
-  TileOverlaysController(MethodChannel methodChannel) {
+  TileOverlaysController(
+      MethodChannel methodChannel, TileDataChannel tileDataChannel, File tileCacheDirectory) {
     this.tileOverlayIdToController = new HashMap<>();
     this.methodChannel = methodChannel;
+    this.tileDataChannel = tileDataChannel;
+    this.tileCacheDirectory = tileCacheDirectory;
   }
 
   void setGoogleMap(GoogleMap googleMap) {
@@ -78,6 +89,88 @@ class TileOverlaysController {
     return tileOverlayController.getTileOverlayInfo();
   }
 
+  Map<String, Object> getTileOverlayMetrics(String tileOverlayId) {
+    if (tileOverlayId == null) {
+      return null;
+    }
+    TileOverlayController tileOverlayController = tileOverlayIdToController.get(tileOverlayId);
+    if (tileOverlayController == null) {
+      return null;
+    }
+    return tileOverlayController.getTileOverlayMetrics();
+  }
+
+  /** Cancels the pending tile requests that are no longer needed after a camera move. */
+  void onCameraMove() {
+    if (googleMap == null || tileOverlayIdToController.isEmpty()) {
+      return;
+    }
+    TileViewport viewport =
+        new TileViewport(
+            googleMap.getProjection().getVisibleRegion().latLngBounds,
+            googleMap.getCameraPosition().zoom);
+    for (TileOverlayController tileOverlayController : tileOverlayIdToController.values()) {
+      tileOverlayController.setViewport(viewport);
+    }
+  }
+
+  /** Cancels the tile requests that are no longer needed and prefetches the tiles around. */
+  void onCameraIdle() {
+    onCameraMove();
+    if (googleMap == null) {
+      return;
+    }
+    CameraPosition cameraPosition = googleMap.getCameraPosition();
+    prefetchTiles(cameraPosition.target, cameraPosition.zoom);
+  }
+
+  /** Prefetches the tiles around the target of a camera animation, as it starts. */
+  void onCameraAnimate(Object cameraUpdate) {
+    if (googleMap == null || tileOverlayIdToController.isEmpty()) {
+      return;
+    }
+    CameraPosition target = Convert.toCameraTarget(cameraUpdate, googleMap.getCameraPosition());
+    if (target != null) {
+      prefetchTiles(target.target, target.zoom);
+    }
+  }
+
+  void dispose() {
+    if (tilePrefetcher != null) {
+      tilePrefetcher.dispose();
+    }
+  }
+
+  private void prefetchTiles(LatLng target, float zoom) {
+    List<AbstractTileProvider> tileProviders = new ArrayList<>();
+    for (TileOverlayController tileOverlayController : tileOverlayIdToController.values()) {
+      if (tileOverlayController.isVisible()) {
+        tileProviders.add(tileOverlayController.getTileProvider());
+      }
+    }
+    if (tileProviders.isEmpty()) {
+      if (tilePrefetcher != null) {
+        tilePrefetcher.cancel();
+      }
+      return;
+    }
+    if (tilePrefetcher == null) {
+      tilePrefetcher = new TilePrefetcher();
+    }
+    // The size of the map view in tiles, which is the same at the zoom level of the target.
+    LatLngBounds bounds = googleMap.getProjection().getVisibleRegion().latLngBounds;
+    double worldSize = Math.pow(2, googleMap.getCameraPosition().zoom);
+    double longitudeSpan = bounds.northeast.longitude - bounds.southwest.longitude;
+    if (longitudeSpan < 0) {
+      longitudeSpan += 360;
+    }
+    double width = longitudeSpan / 360 * worldSize;
+    double height =
+        MarkerClusterer.toWorldY(bounds.southwest, worldSize)
+            - MarkerClusterer.toWorldY(bounds.northeast, worldSize);
+    tilePrefetcher.prefetch(tileProviders, target, zoom, width, height);
+  }
+
   private void addTileOverlay(Map<String, ?> tileOverlayOptions) {
     if (tileOverlayOptions == null) {
       return;
@@ -85,12 +178,14 @@ class TileOverlaysController {
     TileOverlayBuilder tileOverlayOptionsBuilder = new TileOverlayBuilder();
     String tileOverlayId =
         Convert.interpretTileOverlayOptions(tileOverlayOptions, tileOverlayOptionsBuilder);
-    TileProviderController tileProviderController =
-        new TileProviderController(methodChannel, tileOverlayId);
-    tileOverlayOptionsBuilder.setTileProvider(tileProviderController);
+    AbstractTileProvider tileProvider =
+        tileOverlayOptionsBuilder.buildTileProvider(
+            methodChannel, tileDataChannel, tileCacheDirectory, tileOverlayId);
+    tileOverlayOptionsBuilder.setTileProvider(tileProvider);
     TileOverlayOptions options = tileOverlayOptionsBuilder.build();
     TileOverlay tileOverlay = googleMap.addTileOverlay(options);
-    TileOverlayController tileOverlayController = new TileOverlayController(tileOverlay);
+    TileOverlayController tileOverlayController =
+        new TileOverlayController(tileOverlay, tileProvider);
     tileOverlayIdToController.put(tileOverlayId, tileOverlayController);
   }
 
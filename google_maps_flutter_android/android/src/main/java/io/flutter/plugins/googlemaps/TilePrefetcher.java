@@ -0,0 +1,132 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the tiles around a viewport into the caches of the tile providers before the Maps SDK asks
+ * for them, so that panning and zooming show cached tiles rather than blank ones.
+ *
+ * <p>The tiles of the viewport plus a ring of {@link #RING} tiles are prefetched at the zoom level
+ * of the camera, then at the levels above and below it, nearest to the center first. At most
+ * {@link #MAX_TILES} tiles are prefetched per viewport, on a fixed number of threads. Prefetching a
+ * new viewport drops the tiles of the previous one that haven't been loaded yet.
+ */
+class TilePrefetcher {
+  static final int DEFAULT_CONCURRENCY = 2;
+  static final int RING = 1;
+  static final int MAX_TILES = 96;
+
+  private final ExecutorService executor;
+  private final AtomicInteger generation = new AtomicInteger();
+
+  TilePrefetcher() {
+    this(Executors.newFixedThreadPool(DEFAULT_CONCURRENCY));
+  }
+
+  TilePrefetcher(ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Prefetches the tiles of a viewport for the given providers.
+   *
+   * @param target the center of the viewport.
+   * @param zoom the zoom level of the camera.
+   * @param width the width of the viewport, in tiles at the zoom level of the camera.
+   * @param height the height of the viewport, in tiles at the zoom level of the camera.
+   */
+  void prefetch(
+      Collection<AbstractTileProvider> tileProviders,
+      LatLng target,
+      float zoom,
+      double width,
+      double height) {
+    final int currentGeneration = generation.incrementAndGet();
+    if (tileProviders.isEmpty()) {
+      return;
+    }
+    for (final TileCoordinates tile : getTiles(target, zoom, width, height)) {
+      for (final AbstractTileProvider tileProvider : tileProviders) {
+        executor.execute(
+            () -> {
+              if (generation.get() == currentGeneration) {
+                tileProvider.prefetchTile(tile.x, tile.y, tile.zoom);
+              }
+            });
+      }
+    }
+  }
+
+  /** Drops the tiles that haven't been prefetched yet. */
+  void cancel() {
+    generation.incrementAndGet();
+  }
+
+  void dispose() {
+    cancel();
+    executor.shutdownNow();
+  }
+
+  /** Returns the tiles to prefetch, in the order to prefetch them. */
+  static List<TileCoordinates> getTiles(LatLng target, float zoom, double width, double height) {
+    final List<TileCoordinates> tiles = new ArrayList<>();
+    final int centerZoom = Math.round(zoom);
+    final int[] zoomLevels = {centerZoom, centerZoom - 1, centerZoom + 1};
+    for (int tileZoom : zoomLevels) {
+      if (tileZoom < 0 || tileZoom > 30) {
+        continue;
+      }
+      final List<TileCoordinates> levelTiles = new ArrayList<>();
+      final long worldSize = 1L << tileZoom;
+      final double scale = Math.pow(2, tileZoom - zoom);
+      final double centerX = MarkerClusterer.toWorldX(target, worldSize);
+      final double centerY = MarkerClusterer.toWorldY(target, worldSize);
+      final double halfWidth = width * scale / 2 + RING;
+      final double halfHeight = height * scale / 2 + RING;
+      final long minX = (long) Math.floor(centerX - halfWidth);
+      // Each column of the world only once, however wide the viewport.
+      final long maxX =
+          Math.min((long) Math.ceil(centerX + halfWidth) - 1, minX + worldSize - 1);
+      final long minY = Math.max((long) Math.floor(centerY - halfHeight), 0);
+      final long maxY = Math.min((long) Math.ceil(centerY + halfHeight) - 1, worldSize - 1);
+      for (long x = minX; x <= maxX; x++) {
+        for (long y = minY; y <= maxY; y++) {
+          final double dx = x + 0.5 - centerX;
+          final double dy = y + 0.5 - centerY;
+          final long wrappedX = ((x % worldSize) + worldSize) % worldSize;
+          levelTiles.add(
+              new TileCoordinates((int) wrappedX, (int) y, tileZoom, dx * dx + dy * dy));
+        }
+      }
+      Collections.sort(levelTiles, (a, b) -> Double.compare(a.distance, b.distance));
+      tiles.addAll(levelTiles);
+    }
+    return tiles.size() > MAX_TILES ? tiles.subList(0, MAX_TILES) : tiles;
+  }
+
+  static final class TileCoordinates {
+    final int x;
+    final int y;
+    final int zoom;
+    // The squared distance to the center of the viewport, in tiles.
+    final double distance;
+
+    TileCoordinates(int x, int y, int zoom, double distance) {
+      this.x = x;
+      this.y = y;
+      this.zoom = zoom;
+      this.distance = distance;
+    }
+  }
+}
@@ -7,57 +7,388 @@ package io.flutter.plugins.googlemaps;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
-import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import com.google.android.gms.maps.model.Tile;
 import com.google.android.gms.maps.model.TileProvider;
 import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
-class TileProviderController implements TileProvider {
+/**
+ * Tile provider of overlays whose tiles come from Dart.
+ *
+ * <p>Platform messages can only be sent from the main thread, so the tile threads of the Maps SDK
+ * queue their requests and a single task on the main thread sends all the queued ones, skipping
+ * those that timed out or were cancelled meanwhile. A burst of tiles thus takes one turn of the main
+ * looper rather than one per tile. The tiles come back through the {@link TileDataChannel}, off the
+ * main thread.
+ *
+ * <p>Concurrent requests of the same tile, such as the Maps SDK asking again for a tile being
+ * prefetched or after a quick zoom bounce, share a single request to Dart.
+ */
+class TileProviderController extends AbstractTileProvider {
 
   private static final String TAG = "TileProviderController";
+  static final long NO_BATCHING = -1;
+  // A batch is sent right away once it has this many tiles, whatever the batch window.
+  static final int MAX_BATCH_SIZE = 64;
+
+  /** Runs tasks on the main thread after a delay. */
+  interface DelayedExecutor {
+    void execute(Runnable runnable, long delayMillis);
+  }
 
-  private final String tileOverlayId;
   private final MethodChannel methodChannel;
-  private final Handler handler = new Handler(Looper.getMainLooper());
+  @Nullable private final TileDataChannel tileDataChannel;
+  private final Executor mainExecutor;
+  private final DelayedExecutor delayedMainExecutor;
+  private final Set<Worker> workers = Collections.newSetFromMap(new ConcurrentHashMap<>());
+  // The requests sent to Dart, by tile, for the other tile threads to wait for them.
+  private final ConcurrentHashMap<Long, Worker> workersByTile = new ConcurrentHashMap<>();
+  // The requests waiting to be sent on the main thread, when they are not batched.
+  private final ConcurrentLinkedQueue<Worker> pendingRequests = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean sendScheduled = new AtomicBoolean();
+  private final AtomicLong cancelledTiles = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong batchedTiles = new AtomicLong();
+  private final AtomicLong coalescedTiles = new AtomicLong();
+  private volatile long batchWindowMillis = NO_BATCHING;
+  // The requests waiting for the batch window to end. Guarded by this.
+  private List<Worker> pendingBatch;
+
+  /**
+   * @param tileDataChannel the channel through which Dart sends the tiles, or null to receive them
+   *     as method call results.
+   */
+  TileProviderController(
+      MethodChannel methodChannel,
+      @Nullable TileDataChannel tileDataChannel,
+      String tileOverlayId,
+      @Nullable TileCache tileCache) {
+    this(
+        methodChannel,
+        tileDataChannel,
+        tileOverlayId,
+        tileCache,
+        new Handler(Looper.getMainLooper()));
+  }
 
-  TileProviderController(MethodChannel methodChannel, String tileOverlayId) {
-    this.tileOverlayId = tileOverlayId;
+  private TileProviderController(
+      MethodChannel methodChannel,
+      @Nullable TileDataChannel tileDataChannel,
+      String tileOverlayId,
+      @Nullable TileCache tileCache,
+      Handler handler) {
+    this(
+        methodChannel,
+        tileDataChannel,
+        tileOverlayId,
+        tileCache,
+        handler::post,
+        handler::postDelayed);
+  }
+
+  @VisibleForTesting
+  TileProviderController(
+      MethodChannel methodChannel,
+      @Nullable TileDataChannel tileDataChannel,
+      String tileOverlayId,
+      @Nullable TileCache tileCache,
+      Executor mainExecutor,
+      DelayedExecutor delayedMainExecutor) {
+    super(tileOverlayId, tileCache);
     this.methodChannel = methodChannel;
+    this.tileDataChannel = tileDataChannel;
+    this.mainExecutor = mainExecutor;
+    this.delayedMainExecutor = delayedMainExecutor;
+  }
+
+  @Override
+  Tile loadTile(int x, int y, int zoom) {
+    return loadTile(x, y, zoom, false);
   }
 
   @Override
-  public Tile getTile(final int x, final int y, final int zoom) {
-    Worker worker = new Worker(x, y, zoom);
-    return worker.getTile();
+  Tile loadTileAhead(int x, int y, int zoom) {
+    return loadTile(x, y, zoom, true);
   }
 
-  private final class Worker implements MethodChannel.Result {
+  private Tile loadTile(int x, int y, int zoom, boolean prefetch) {
+    final Long key = toKey(x, y, zoom);
+    final Worker worker = new Worker(x, y, zoom, prefetch);
+    while (true) {
+      final Worker sharedWorker = workersByTile.putIfAbsent(key, worker);
+      if (sharedWorker == null) {
+        break;
+      }
+      if (!sharedWorker.isDone()) {
+        coalescedTiles.incrementAndGet();
+        return sharedWorker.joinTile();
+      }
+      // Done, but not removed yet by its tile thread.
+      workersByTile.remove(key, sharedWorker);
+    }
+    try {
+      return worker.getTile();
+    } finally {
+      workersByTile.remove(key, worker);
+    }
+  }
+
+  /**
+   * Sets how long to wait for more tile requests to send them to Dart together in a single
+   * "tileOverlay#getTiles" call, or {@link #NO_BATCHING} to send a "tileOverlay#getTile" call per
+   * tile.
+   */
+  @Override
+  void setBatchWindow(long batchWindowMillis) {
+    this.batchWindowMillis = batchWindowMillis;
+  }
+
+  @Override
+  void setViewport(TileViewport viewport) {
+    for (Worker worker : workers) {
+      if (!worker.prefetch && !viewport.contains(worker.x, worker.y, worker.zoom)) {
+        worker.cancel();
+      }
+    }
+  }
+
+  @Override
+  Map<String, Object> getTileRequestStats() {
+    final Map<String, Object> data = new HashMap<>(5);
+    data.put("inFlight", workers.size());
+    data.put("cancelled", cancelledTiles.get());
+    data.put("batches", batches.get());
+    data.put("batchedTiles", batchedTiles.get());
+    data.put("coalesced", coalescedTiles.get());
+    return data;
+  }
+
+  private void requestTile(Worker worker) {
+    final long batchWindowMillis = this.batchWindowMillis;
+    if (batchWindowMillis < 0) {
+      pendingRequests.add(worker);
+      if (sendScheduled.compareAndSet(false, true)) {
+        mainExecutor.execute(this::sendPendingRequests);
+      }
+      return;
+    }
+    final List<Worker> fullBatch;
+    final boolean startsBatch;
+    synchronized (this) {
+      startsBatch = pendingBatch == null;
+      if (startsBatch) {
+        pendingBatch = new ArrayList<>();
+      }
+      pendingBatch.add(worker);
+      fullBatch = pendingBatch.size() >= MAX_BATCH_SIZE ? takePendingBatch() : null;
+    }
+    if (fullBatch != null) {
+      mainExecutor.execute(() -> requestTiles(fullBatch));
+    } else if (startsBatch) {
+      delayedMainExecutor.execute(
+          () -> {
+            final List<Worker> batch;
+            synchronized (this) {
+              batch = takePendingBatch();
+            }
+            if (batch != null) {
+              requestTiles(batch);
+            }
+          },
+          batchWindowMillis);
+    }
+  }
+
+  private void sendPendingRequests() {
+    // Cleared first, so that the requests queued while sending these schedule another task.
+    sendScheduled.set(false);
+    Worker worker;
+    while ((worker = pendingRequests.poll()) != null) {
+      if (!worker.isDone()) {
+        worker.request();
+      }
+    }
+  }
+
+  /** Packs tile coordinates, which are below 2^zoom for zoom levels up to 29, into a long. */
+  private static long toKey(int x, int y, int zoom) {
+    return ((long) zoom << 58) | ((long) x << 29) | y;
+  }
+
+  private List<Worker> takePendingBatch() {
+    final List<Worker> batch = pendingBatch;
+    pendingBatch = null;
+    return batch;
+  }
+
+  private void requestTiles(List<Worker> batch) {
+    final List<Worker> requested = new ArrayList<>(batch.size());
+    for (Worker worker : batch) {
+      // Timed out or cancelled while waiting for the batch window to end.
+      if (!worker.isDone()) {
+        requested.add(worker);
+      }
+    }
+    if (requested.isEmpty()) {
+      return;
+    }
+    if (requested.size() == 1) {
+      requested.get(0).request();
+      return;
+    }
+    final int[] tiles = new int[requested.size() * 3];
+    final int[] requestIds = tileDataChannel != null ? new int[requested.size()] : null;
+    for (int i = 0; i < requested.size(); i++) {
+      final Worker worker = requested.get(i);
+      tiles[i * 3] = worker.x;
+      tiles[i * 3 + 1] = worker.y;
+      tiles[i * 3 + 2] = worker.zoom;
+      if (requestIds != null) {
+        requestIds[i] = worker.register();
+      }
+    }
+    batches.incrementAndGet();
+    batchedTiles.addAndGet(requested.size());
+    final Map<String, Object> arguments =
+        Convert.tileOverlayBatchArgumentsToJson(tileOverlayId, tiles);
+    if (requestIds != null) {
+      arguments.put("requestIds", requestIds);
+    }
+    methodChannel.invokeMethod("tileOverlay#getTiles", arguments, new BatchResult(requested));
+  }
+
+  /** Hands out the tiles of a "tileOverlay#getTiles" call to the workers that requested them. */
+  private static final class BatchResult implements MethodChannel.Result {
+    private final List<Worker> workers;
+
+    BatchResult(List<Worker> workers) {
+      this.workers = workers;
+    }
+
+    @Override
+    public void success(Object data) {
+      if (data == null && workers.get(0).requestId != 0) {
+        // The tiles are sent through the tile data channel.
+        return;
+      }
+      final List<?> tiles = (List<?>) data;
+      for (int i = 0; i < workers.size(); i++) {
+        if (tiles != null && i < tiles.size()) {
+          workers.get(i).success(tiles.get(i));
+        } else {
+          workers.get(i).error("missing-tile", "No tile in the batch response", null);
+        }
+      }
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object data) {
+      for (Worker worker : workers) {
+        worker.error(errorCode, errorMessage, data);
+      }
+    }
+
+    @Override
+    public void notImplemented() {
+      // The Dart side doesn't batch, so the tiles are requested one by one.
+      for (Worker worker : workers) {
+        if (!worker.isDone()) {
+          worker.request();
+        }
+      }
+    }
+  }
+
+  private final class Worker implements MethodChannel.Result, TileDataChannel.Receiver {
 
     private final CountDownLatch countDownLatch = new CountDownLatch(1);
     private final int x;
     private final int y;
     private final int zoom;
+    private final boolean prefetch;
+    // 0 if the request never times out.
+    private final long timeoutMillis;
+    // The System.nanoTime() at which the request times out, shared by the joined threads.
+    private final long deadlineNanos;
     private Map<String, ?> result;
+    // The tile received through the tile data channel, if any.
+    private Tile tile;
+    // The id of the request in the tile data channel, or 0 if not sent through it.
+    private volatile int requestId;
+    private volatile boolean cancelled;
 
-    Worker(int x, int y, int zoom) {
+    Worker(int x, int y, int zoom, boolean prefetch) {
       this.x = x;
       this.y = y;
       this.zoom = zoom;
+      this.prefetch = prefetch;
+      timeoutMillis = Math.max(getTileTimeout(), 0);
+      deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
     }
 
-    @NonNull
+    /**
+     * Returns the tile from Dart, or null if the request timed out or was cancelled, in which case
+     * the Maps SDK requests the tile again later if it is still needed.
+     */
+    @Nullable
     Tile getTile() {
-      handler.post(
-          () ->
-              methodChannel.invokeMethod(
-                  "tileOverlay#getTile",
-                  Convert.tileOverlayArgumentsToJson(tileOverlayId, x, y, zoom),
-                  this));
+      requestTile(this);
+      workers.add(this);
       try {
-        // Because `methodChannel.invokeMethod` is async, we use a `countDownLatch` make it synchronized.
-        countDownLatch.await();
+        if (!await()) {
+          if (!prefetch) {
+            metrics.onTimeout();
+          }
+          Log.w(
+              TAG,
+              String.format(
+                  "Timed out getting tile: x = %d, y= %d, zoom = %d after %d ms",
+                  x, y, zoom, timeoutMillis));
+          return null;
+        }
+      } catch (InterruptedException e) {
+        Log.e(
+            TAG,
+            String.format("countDownLatch: can't get tile: x = %d, y= %d, zoom = %d", x, y, zoom),
+            e);
+        return TileProvider.NO_TILE;
+      } finally {
+        workers.remove(this);
+        if (requestId != 0) {
+          tileDataChannel.unregister(requestId);
+        }
+      }
+      if (cancelled) {
+        cancelledTiles.incrementAndGet();
+        return null;
+      }
+      return toTile();
+    }
+
+    /**
+     * Waits for the tile requested by another tile thread, until that request times out. Only the
+     * requesting thread counts the timeout.
+     */
+    @Nullable
+    Tile joinTile() {
+      try {
+        if (!await()) {
+          return null;
+        }
       } catch (InterruptedException e) {
         Log.e(
             TAG,
@@ -65,6 +396,23 @@ class TileProviderController implements TileProvider {
             e);
         return TileProvider.NO_TILE;
       }
+      return cancelled ? null : toTile();
+    }
+
+    /** Waits for the tile until the deadline of the request, and returns false if it timed out. */
+    private boolean await() throws InterruptedException {
+      // Because `methodChannel.invokeMethod` is async, we use a `countDownLatch` make it synchronized.
+      if (timeoutMillis == 0) {
+        countDownLatch.await();
+        return true;
+      }
+      return countDownLatch.await(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private Tile toTile() {
+      if (tile != null) {
+        return tile;
+      }
       try {
         return Convert.interpretTile(result);
       } catch (Exception e) {
@@ -73,9 +421,49 @@ class TileProviderController implements TileProvider {
       }
     }
 
+    /** Sends the request of this tile alone to Dart. Called on the main thread. */
+    void request() {
+      final Map<String, Object> arguments =
+          Convert.tileOverlayArgumentsToJson(tileOverlayId, x, y, zoom);
+      if (tileDataChannel != null) {
+        arguments.put("requestId", register());
+      }
+      methodChannel.invokeMethod("tileOverlay#getTile", arguments, this);
+    }
+
+    /**
+     * Returns the id of the request of this tile in the tile data channel, which is kept if the tile
+     * is requested again after a batch.
+     */
+    int register() {
+      if (requestId == 0) {
+        requestId = tileDataChannel.register(this);
+      }
+      return requestId;
+    }
+
+    boolean isDone() {
+      return countDownLatch.getCount() == 0;
+    }
+
+    void cancel() {
+      cancelled = true;
+      countDownLatch.countDown();
+    }
+
+    @Override
+    public void onTile(Tile tile) {
+      this.tile = tile;
+      countDownLatch.countDown();
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void success(Object data) {
+      if (data == null && requestId != 0) {
+        // The tile is sent through the tile data channel.
+        return;
+      }
       result = (Map<String, ?>) data;
       countDownLatch.countDown();
     }
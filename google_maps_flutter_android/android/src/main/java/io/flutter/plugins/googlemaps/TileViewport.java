@@ -0,0 +1,61 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLngBounds;
+
+/**
+ * The visible region and zoom level of the map, used to tell whether a requested tile is still
+ * needed.
+ *
+ * <p>A tile is needed if its zoom level is at most one level away from the camera zoom, since the
+ * Maps SDK also requests neighbouring levels to fill the screen while zooming, and if it is at most
+ * one tile away from the visible region at its zoom level. Immutable.
+ */
+class TileViewport {
+  // Tiles this far outside the visible region are still needed, as they may be in view in a moment.
+  private static final int MARGIN = 1;
+
+  private final LatLngBounds bounds;
+  private final float zoom;
+
+  TileViewport(LatLngBounds bounds, float zoom) {
+    this.bounds = bounds;
+    this.zoom = zoom;
+  }
+
+  boolean contains(int x, int y, int zoom) {
+    if (Math.abs(zoom - Math.round(this.zoom)) > 1) {
+      return false;
+    }
+    final long worldSize = 1L << zoom;
+    if (worldSize <= 2 * MARGIN + 2) {
+      return true;
+    }
+    final long north = (long) Math.floor(MarkerClusterer.toWorldY(bounds.northeast, worldSize));
+    final long south = (long) Math.floor(MarkerClusterer.toWorldY(bounds.southwest, worldSize));
+    if (y < north - MARGIN || y > south + MARGIN) {
+      return false;
+    }
+    // Measured eastwards from the west edge, so that regions crossing the antimeridian work.
+    double longitudeSpan = bounds.northeast.longitude - bounds.southwest.longitude;
+    if (longitudeSpan < 0) {
+      longitudeSpan += 360;
+    }
+    final double west = MarkerClusterer.toWorldX(bounds.southwest, worldSize);
+    final double width = longitudeSpan / 360 * worldSize;
+    if (width + 2 * MARGIN + 1 >= worldSize) {
+      return true;
+    }
+    final long lastOffset = (long) Math.floor(west + width) - (long) Math.floor(west);
+    final long offset = wrap(x - (long) Math.floor(west), worldSize);
+    return offset <= lastOffset + MARGIN || offset >= worldSize - MARGIN;
+  }
+
+  private static long wrap(long value, long size) {
+    final long wrapped = value % size;
+    return wrapped < 0 ? wrapped + size : wrapped;
+  }
+}
@@ -0,0 +1,318 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tile provider of overlays with a URL template, which fetches the tiles over HTTP natively instead
+ * of asking Dart for them.
+ *
+ * <p>The template contains {x}, {y} and {z} placeholders, such as
+ * "https://tile.example.com/{z}/{x}/{y}.png". At most {@code maxConnections} tiles are fetched at
+ * once, so that the connections to the server are kept alive and reused by {@link
+ * HttpURLConnection} rather than opened for every burst of tiles. If a disk size is configured, the
+ * tiles are stored on disk with the ETag and Last-Modified headers of their response, served until
+ * they expire according to the Cache-Control or Expires headers, and revalidated with a
+ * conditional request after that.
+ */
+class UrlTileProviderController extends AbstractTileProvider {
+
+  private static final String TAG = "UrlTileProvider";
+  static final int DEFAULT_MAX_CONNECTIONS = 4;
+
+  private final String urlTemplate;
+  private final int tileSize;
+  private final Semaphore connections;
+  private final File cacheDirectory;
+  private final long maxDiskBytes;
+  @Nullable private volatile DiskTileStore diskStore;
+  // Only used on the main thread.
+  private String cacheVersion;
+  // The connections of the tiles being fetched, to disconnect them once they are out of view.
+  private final Map<TileRequest, HttpURLConnection> requests = new ConcurrentHashMap<>();
+  private final AtomicLong fetches = new AtomicLong();
+  private final AtomicLong notModified = new AtomicLong();
+  private final AtomicLong diskHits = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong cancelledTiles = new AtomicLong();
+
+  /**
+   * @param cacheDirectory the root directory of the tile caches of all overlays.
+   * @param maxDiskBytes the size limit of the tiles stored on disk, or 0 not to store them.
+   */
+  UrlTileProviderController(
+      String tileOverlayId,
+      String urlTemplate,
+      int tileSize,
+      int maxConnections,
+      File cacheDirectory,
+      String cacheVersion,
+      long maxDiskBytes) {
+    // The Maps SDK keeps the tiles in memory itself, and tiles on disk are revalidated.
+    super(tileOverlayId, null);
+    this.urlTemplate = urlTemplate;
+    this.tileSize = tileSize;
+    this.connections = new Semaphore(Math.max(maxConnections, 1));
+    this.cacheDirectory = cacheDirectory;
+    this.maxDiskBytes = maxDiskBytes;
+    this.cacheVersion = cacheVersion;
+    this.diskStore = createDiskStore(cacheVersion);
+  }
+
+  @Override
+  Tile loadTile(int x, int y, int zoom) {
+    return loadTile(x, y, zoom, false);
+  }
+
+  @Override
+  void prefetchTile(int x, int y, int zoom) {
+    final DiskTileStore diskStore = this.diskStore;
+    if (diskStore != null && !diskStore.contains(x, y, zoom)) {
+      loadTile(x, y, zoom, true);
+    }
+  }
+
+  private Tile loadTile(int x, int y, int zoom, boolean prefetch) {
+    final DiskTileStore diskStore = this.diskStore;
+    final DiskTileStore.Entry entry = diskStore != null ? diskStore.getEntry(x, y, zoom) : null;
+    if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+      diskHits.incrementAndGet();
+      return entry.tile;
+    }
+    try {
+      connections.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    final TileRequest request = new TileRequest(x, y, zoom, prefetch);
+    try {
+      final HttpURLConnection connection =
+          (HttpURLConnection) new URL(getUrl(x, y, zoom)).openConnection();
+      requests.put(request, connection);
+      return fetchTile(connection, request, entry, diskStore);
+    } catch (IOException e) {
+      if (request.cancelled) {
+        cancelledTiles.incrementAndGet();
+      } else if (e instanceof SocketTimeoutException) {
+        if (!prefetch) {
+          metrics.onTimeout();
+        }
+        failures.incrementAndGet();
+        Log.w(TAG, String.format("Timed out fetching tile: x = %d, y= %d, zoom = %d", x, y, zoom));
+      } else {
+        failures.incrementAndGet();
+        Log.w(TAG, String.format("Can't fetch tile: x = %d, y= %d, zoom = %d", x, y, zoom), e);
+      }
+      return null;
+    } finally {
+      requests.remove(request);
+      connections.release();
+    }
+  }
+
+  private Tile fetchTile(
+      HttpURLConnection connection,
+      TileRequest request,
+      @Nullable DiskTileStore.Entry entry,
+      @Nullable DiskTileStore diskStore)
+      throws IOException {
+    final int timeoutMillis = (int) Math.min(getTileTimeout(), Integer.MAX_VALUE);
+    connection.setConnectTimeout(timeoutMillis);
+    connection.setReadTimeout(timeoutMillis);
+    if (entry != null) {
+      if (!entry.etag.isEmpty()) {
+        connection.setRequestProperty("If-None-Match", entry.etag);
+      }
+      if (!entry.lastModified.isEmpty()) {
+        connection.setRequestProperty("If-Modified-Since", entry.lastModified);
+      }
+    }
+    fetches.incrementAndGet();
+    try {
+      final int responseCode = connection.getResponseCode();
+      if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null) {
+        notModified.incrementAndGet();
+        // Reads what's left of the response, so that the connection can be reused.
+        drain(connection.getInputStream());
+        store(diskStore, request, entry.tile, connection);
+        return entry.tile;
+      }
+      if (responseCode == HttpURLConnection.HTTP_NOT_FOUND
+          || responseCode == HttpURLConnection.HTTP_NO_CONTENT) {
+        return TileProvider.NO_TILE;
+      }
+      if (responseCode != HttpURLConnection.HTTP_OK) {
+        failures.incrementAndGet();
+        Log.w(TAG, "Can't fetch tile: HTTP " + responseCode + " for " + connection.getURL());
+        final InputStream errorStream = connection.getErrorStream();
+        if (errorStream != null) {
+          drain(errorStream);
+        }
+        return null;
+      }
+      final byte[] data;
+      try (InputStream input = connection.getInputStream()) {
+        data = readFully(input);
+      }
+      final Tile tile = new Tile(tileSize, tileSize, data);
+      store(diskStore, request, tile, connection);
+      return tile;
+    } finally {
+      if (request.cancelled) {
+        connection.disconnect();
+      }
+    }
+  }
+
+  private void store(
+      @Nullable DiskTileStore diskStore,
+      TileRequest request,
+      Tile tile,
+      HttpURLConnection connection) {
+    if (diskStore == null || !isCacheable(connection)) {
+      return;
+    }
+    diskStore.put(
+        request.x,
+        request.y,
+        request.zoom,
+        new DiskTileStore.Entry(
+            tile,
+            headerOrEmpty(connection, "ETag"),
+            headerOrEmpty(connection, "Last-Modified"),
+            getExpiresAt(connection)));
+  }
+
+  String getUrl(int x, int y, int zoom) {
+    return urlTemplate
+        .replace("{x}", Integer.toString(x))
+        .replace("{y}", Integer.toString(y))
+        .replace("{z}", Integer.toString(zoom));
+  }
+
+  @Override
+  void setViewport(TileViewport viewport) {
+    for (Map.Entry<TileRequest, HttpURLConnection> request : requests.entrySet()) {
+      final TileRequest tileRequest = request.getKey();
+      if (!tileRequest.prefetch
+          && !viewport.contains(tileRequest.x, tileRequest.y, tileRequest.zoom)) {
+        tileRequest.cancelled = true;
+        // Makes the blocked read of the tile thread fail.
+        request.getValue().disconnect();
+      }
+    }
+  }
+
+  @Override
+  boolean setCacheVersion(String cacheVersion) {
+    if (maxDiskBytes <= 0 || cacheVersion.equals(this.cacheVersion)) {
+      return false;
+    }
+    this.cacheVersion = cacheVersion;
+    diskStore = createDiskStore(cacheVersion);
+    return true;
+  }
+
+  @Override
+  Map<String, Object> getTileCacheStats() {
+    final DiskTileStore diskStore = this.diskStore;
+    if (diskStore == null) {
+      return null;
+    }
+    final Map<String, Object> data = new HashMap<>(3);
+    data.put("diskHits", diskHits.get());
+    data.put("notModified", notModified.get());
+    data.put("diskBytes", diskStore.byteSize());
+    return data;
+  }
+
+  @Override
+  Map<String, Object> getTileRequestStats() {
+    final Map<String, Object> data = new HashMap<>(4);
+    data.put("inFlight", requests.size());
+    data.put("fetches", fetches.get());
+    data.put("failures", failures.get());
+    data.put("cancelled", cancelledTiles.get());
+    return data;
+  }
+
+  @Nullable
+  private DiskTileStore createDiskStore(String cacheVersion) {
+    return maxDiskBytes > 0
+        ? new DiskTileStore(cacheDirectory, tileOverlayId, cacheVersion, maxDiskBytes)
+        : null;
+  }
+
+  private static boolean isCacheable(HttpURLConnection connection) {
+    final String cacheControl = connection.getHeaderField("Cache-Control");
+    return cacheControl == null || !cacheControl.contains("no-store");
+  }
+
+  /** Returns when the response expires, or now if it has to be revalidated every time. */
+  private static long getExpiresAt(HttpURLConnection connection) {
+    final long now = System.currentTimeMillis();
+    final String cacheControl = connection.getHeaderField("Cache-Control");
+    if (cacheControl != null) {
+      if (cacheControl.contains("no-cache")) {
+        return now;
+      }
+      for (String directive : cacheControl.split(",")) {
+        directive = directive.trim();
+        if (directive.startsWith("max-age=")) {
+          try {
+            return now + Long.parseLong(directive.substring("max-age=".length())) * 1000;
+          } catch (NumberFormatException e) {
+            return now;
+          }
+        }
+      }
+    }
+    final long expires = connection.getHeaderFieldDate("Expires", 0);
+    return expires > 0 ? expires : now;
+  }
+
+  private static String headerOrEmpty(HttpURLConnection connection, String name) {
+    final String value = connection.getHeaderField(name);
+    return value != null ? value : "";
+  }
+
+  private static void drain(InputStream input) throws IOException {
+    try (InputStream stream = input) {
+      readFully(stream);
+    }
+  }
+
+  /** A tile being fetched. Compared by identity, as the same tile may be fetched twice at once. */
+  private static final class TileRequest {
+    final int x;
+    final int y;
+    final int zoom;
+    final boolean prefetch;
+    volatile boolean cancelled;
+
+    TileRequest(int x, int y, int zoom, boolean prefetch) {
+      this.x = x;
+      this.y = y;
+      this.zoom = zoom;
+      this.prefetch = prefetch;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class ConvertTest {
+
+  @Test
+  public void interpretPolylineOptions_DecodesPackedPoints() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("polylineId", "polyline");
+    data.put("points", new double[] {1.5, -2.25, 3.0, 4.0});
+
+    assertEquals(
+        Arrays.asList(new LatLng(1.5, -2.25), new LatLng(3.0, 4.0)), interpretPolylinePoints(data));
+  }
+
+  @Test
+  public void interpretPolylineOptions_KeepsSubCentimeterPrecision() {
+    // 1e-8 degrees is about a millimeter, well below the precision of floats near 180 degrees.
+    final double latitude = 37.42199912345678;
+    final double longitude = 179.08405812345678;
+    final Map<String, Object> data = new HashMap<>();
+    data.put("polylineId", "polyline");
+    data.put(
+        "points",
+        Arrays.asList(Arrays.asList(latitude, longitude), Arrays.asList(-latitude, 1)));
+
+    final List<LatLng> points = interpretPolylinePoints(data);
+
+    assertEquals(latitude, points.get(0).latitude, 1e-8);
+    assertEquals(longitude, points.get(0).longitude, 1e-8);
+    assertEquals(-latitude, points.get(1).latitude, 1e-8);
+    assertEquals(1.0, points.get(1).longitude, 0);
+  }
+
+  @Test
+  public void interpretPolylineOptions_DecodesEncodedPolyline() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("polylineId", "polyline");
+    // The example of the Encoded Polyline Algorithm Format documentation.
+    data.put("points", "_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+
+    final List<LatLng> points = interpretPolylinePoints(data);
+
+    assertEquals(3, points.size());
+    assertLatLngEquals(new LatLng(38.5, -120.2), points.get(0));
+    assertLatLngEquals(new LatLng(40.7, -120.95), points.get(1));
+    assertLatLngEquals(new LatLng(43.252, -126.453), points.get(2));
+  }
+
+  @Test
+  public void interpretPolygonOptions_DecodesHolesOfAnyEncoding() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("polygonId", "polygon");
+    data.put("points", new double[] {0.0, 0.0, 0.0, 10.0, 10.0, 10.0, 10.0, 0.0});
+    data.put(
+        "holes",
+        Arrays.asList(
+            new double[] {1.0, 1.0, 1.0, 2.0, 2.0, 2.0},
+            Arrays.asList(
+                Arrays.asList(5.0, 5.0), Arrays.asList(5.0, 6.0), Arrays.asList(6.0, 6.0)),
+            "_p~iF~ps|U_ulLnnqC_mqNvxq`@"));
+    final PolygonOptionsSink sink = mock(PolygonOptionsSink.class);
+
+    Convert.interpretPolygonOptions(data, sink);
+
+    @SuppressWarnings("unchecked")
+    final ArgumentCaptor<List<List<LatLng>>> holes = ArgumentCaptor.forClass(List.class);
+    verify(sink).setHoles(holes.capture());
+    assertEquals(3, holes.getValue().size());
+    assertEquals(
+        Arrays.asList(new LatLng(1.0, 1.0), new LatLng(1.0, 2.0), new LatLng(2.0, 2.0)),
+        holes.getValue().get(0));
+    assertEquals(
+        Arrays.asList(new LatLng(5.0, 5.0), new LatLng(5.0, 6.0), new LatLng(6.0, 6.0)),
+        holes.getValue().get(1));
+    assertEquals(3, holes.getValue().get(2).size());
+  }
+
+  @Test
+  public void interpretPolygonOptions_SkipsGeometryIfUnchanged() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("polygonId", "polygon");
+    data.put("fillColor", 0xff00ff00);
+    data.put("points", new double[] {0.0, 0.0, 0.0, 10.0, 10.0, 10.0});
+    data.put("holes", Arrays.asList(new double[] {1.0, 1.0, 1.0, 2.0, 2.0, 2.0}));
+    final PolygonOptionsSink sink = mock(PolygonOptionsSink.class);
+
+    Convert.interpretPolygonOptions(data, sink, false);
+
+    verify(sink).setFillColor(0xff00ff00);
+    verify(sink, never()).setPoints(any());
+    verify(sink, never()).setHoles(any());
+  }
+
+  @Test
+  public void decodePolyline_DecodesEncodedPoints() {
+    final List<LatLng> points = Convert.decodePolyline("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+
+    assertEquals(3, points.size());
+    assertLatLngEquals(new LatLng(38.5, -120.2), points.get(0));
+    assertLatLngEquals(new LatLng(40.7, -120.95), points.get(1));
+    assertLatLngEquals(new LatLng(43.252, -126.453), points.get(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void decodePolyline_RejectsTruncatedLatitude() {
+    // The last character of the latitude still has its continuation bit set.
+    Convert.decodePolyline("_p~i");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void decodePolyline_RejectsTruncatedLongitude() {
+    // The last character of the longitude still has its continuation bit set.
+    Convert.decodePolyline("_p~iF~ps|");
+  }
+
+  @Test
+  public void toGeometryHash_DependsOnCoordinatesAndStructure() {
+    final List<?> points =
+        Arrays.asList(Arrays.asList(1.0, 2.0), Arrays.asList(3.0, 4.0), Arrays.asList(5.0, 6.0));
+    final List<?> samePoints =
+        Arrays.asList(Arrays.asList(1.0, 2.0), Arrays.asList(3.0, 4.0), Arrays.asList(5.0, 6.0));
+    final List<?> movedPoints =
+        Arrays.asList(Arrays.asList(1.0, 2.0), Arrays.asList(3.0, 4.0), Arrays.asList(5.0, 6.5));
+
+    assertEquals(
+        Convert.toGeometryHash(points, null), Convert.toGeometryHash(samePoints, null));
+    assertNotEquals(
+        Convert.toGeometryHash(points, null), Convert.toGeometryHash(movedPoints, null));
+    assertNotEquals(
+        Convert.toGeometryHash(new double[] {1, 2, 3, 4}, Arrays.asList(new double[] {5, 6})),
+        Convert.toGeometryHash(new double[] {1, 2}, Arrays.asList(new double[] {3, 4, 5, 6})));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<LatLng> interpretPolylinePoints(Map<String, Object> data) {
+    final PolylineOptionsSink sink = mock(PolylineOptionsSink.class);
+    Convert.interpretPolylineOptions(data, sink);
+    final ArgumentCaptor<List<LatLng>> points = ArgumentCaptor.forClass(List.class);
+    verify(sink).setPoints(points.capture());
+    return points.getValue();
+  }
+
+  private static void assertLatLngEquals(LatLng expected, LatLng actual) {
+    assertEquals(expected.latitude, actual.latitude, 1e-9);
+    assertEquals(expected.longitude, actual.longitude, 1e-9);
+  }
+}
@@ -0,0 +1,97 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.os.Build;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class CozyMarkerBuilderTest {
+  private static final String[] LABELS = {
+    "$1", "$12", "$450", "$1,200", "$89.99", "$12,500", "R$ 3.750", "$1,234,567", "$11", "$WWW"
+  };
+
+  private CozyMarkerBuilder cozyMarkerBuilder;
+
+  @Before
+  public void before() {
+    final Context context = ApplicationProvider.getApplicationContext();
+    cozyMarkerBuilder = new CozyMarkerBuilder(174, 20, context);
+  }
+
+  @Test
+  public void getCenteredTextX_CentersGlyphsWithLeftBearing() {
+    final Rect textBounds = new Rect(3, -30, 62, 8);
+
+    final float x = CozyMarkerBuilder.getCenteredTextX(128, textBounds);
+
+    // The glyphs are drawn from x + left to x + right.
+    assertEquals(64f, x + (textBounds.left + textBounds.right) / 2f, 0f);
+  }
+
+  @Test
+  public void getBubbleTextBounds_MeasuresLabelOnce() {
+    final Rect textBounds = cozyMarkerBuilder.getBubbleTextBounds("$450");
+
+    cozyMarkerBuilder.addBubbleMarkerText("$450");
+
+    assertSame(textBounds, cozyMarkerBuilder.getBubbleTextBounds("$450"));
+  }
+
+  @Test
+  public void addBubbleMarkerText_DoesNotMeasureRepeatedLabels() {
+    for (String label : LABELS) {
+      cozyMarkerBuilder.addBubbleMarkerText(label);
+    }
+    final int missCount = cozyMarkerBuilder.getBubbleTextBoundsMissCount();
+
+    for (int i = 0; i < 100; i++) {
+      for (String label : LABELS) {
+        cozyMarkerBuilder.addBubbleMarkerText(label);
+      }
+    }
+
+    assertEquals(LABELS.length, missCount);
+    assertEquals(missCount, cozyMarkerBuilder.getBubbleTextBoundsMissCount());
+  }
+
+  @Test
+  public void getBubbleTemplateWidth_RoundsUpToBucketEndOfSameParity() {
+    final int bucket = CozyMarkerBuilder.BUBBLE_WIDTH_BUCKET;
+
+    assertEquals(4 * bucket, CozyMarkerBuilder.getBubbleTemplateWidth(4 * bucket));
+    assertEquals(5 * bucket, CozyMarkerBuilder.getBubbleTemplateWidth(4 * bucket + 2));
+    assertEquals(5 * bucket - 1, CozyMarkerBuilder.getBubbleTemplateWidth(4 * bucket + 1));
+    assertEquals(5 * bucket - 1, CozyMarkerBuilder.getBubbleTemplateWidth(5 * bucket - 1));
+  }
+
+  @Test
+  public void addBubbleMarkerText_KeepsExactWidthOfLabel() {
+    final int padding = CozyMarkerBuilder.BUBBLE_PADDING;
+    for (String label : LABELS) {
+      final Rect textBounds = cozyMarkerBuilder.getBubbleTextBounds(label);
+      final Bitmap marker = cozyMarkerBuilder.addBubbleMarkerText(label);
+
+      // Bubbles are as wide as their label, whatever the width of their template.
+      assertEquals(label, textBounds.width() + padding, marker.getWidth());
+      final float x = CozyMarkerBuilder.getCenteredTextX(marker.getWidth(), textBounds);
+      assertTrue(label, x + textBounds.left >= padding / 2f);
+      assertTrue(label, x + textBounds.right <= marker.getWidth() - padding / 2f);
+    }
+  }
+}
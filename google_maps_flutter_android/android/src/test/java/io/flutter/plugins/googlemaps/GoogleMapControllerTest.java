@@ -6,6 +6,10 @@ package io.flutter.plugins.googlemaps;
 
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -126,6 +130,30 @@ public class GoogleMapControllerTest {
     verify(mapView).invalidate();
   }
 
+  @Test
+  public void SetPoolSizeWithoutSizeRepliesWithError() {
+    googleMapController.onMapReady(mockGoogleMap);
+    MethodChannel.Result result = mock(MethodChannel.Result.class);
+
+    googleMapController.onMethodCall(
+        new MethodCall("markers#setPoolSize", new HashMap<String, Object>()), result);
+
+    verify(result).error(eq("Invalid size"), anyString(), isNull());
+    verify(result, never()).success(any());
+  }
+
+  @Test
+  public void SetFrameBudgetWithoutBudgetRepliesWithError() {
+    googleMapController.onMapReady(mockGoogleMap);
+    MethodChannel.Result result = mock(MethodChannel.Result.class);
+
+    googleMapController.onMethodCall(
+        new MethodCall("markers#setFrameBudget", new HashMap<String, Object>()), result);
+
+    verify(result).error(eq("Invalid budgetMillis"), anyString(), isNull());
+    verify(result, never()).success(any());
+  }
+
   @Test
   public void MethodCalledAfterControllerIsDestroyed() throws InterruptedException {
     googleMapController.onMapReady(mockGoogleMap);
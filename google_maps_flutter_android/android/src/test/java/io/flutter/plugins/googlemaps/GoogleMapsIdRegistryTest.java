@@ -0,0 +1,71 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class GoogleMapsIdRegistryTest {
+
+  @Test
+  public void parseNumber_ReadsSequenceNumberAfterPrefix() {
+    assertEquals(123, GoogleMapsIdRegistry.parseNumber("m123"));
+    assertEquals(0, GoogleMapsIdRegistry.parseNumber("pl0"));
+    assertEquals(-1, GoogleMapsIdRegistry.parseNumber("m"));
+    assertEquals(-1, GoogleMapsIdRegistry.parseNumber("m007"));
+    assertEquals(-1, GoogleMapsIdRegistry.parseNumber("m12a"));
+    assertEquals(-1, GoogleMapsIdRegistry.parseNumber("m99999999999"));
+  }
+
+  @Test
+  public void get_ReturnsDartIdOfGoogleMapsId() {
+    final GoogleMapsIdRegistry registry = new GoogleMapsIdRegistry();
+    registry.put("m0", "marker0");
+    registry.put("m1", "marker1");
+
+    assertEquals("marker0", registry.get("m0"));
+    assertEquals("marker1", registry.get("m1"));
+    assertNull(registry.get("m2"));
+  }
+
+  @Test
+  public void get_FallsBackForIdsWithoutNumber() {
+    final GoogleMapsIdRegistry registry = new GoogleMapsIdRegistry();
+    registry.put("abc", "marker0");
+    registry.put("m007", "marker7");
+
+    assertEquals("marker0", registry.get("abc"));
+    assertEquals("marker7", registry.get("m007"));
+    assertEquals(2, registry.size());
+    assertEquals("marker0", registry.remove("abc"));
+    assertNull(registry.get("abc"));
+  }
+
+  @Test
+  public void remove_KeepsCollidingEntriesReachable() {
+    final GoogleMapsIdRegistry registry = new GoogleMapsIdRegistry();
+    final Map<String, String> expected = new HashMap<>();
+    final Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      final String googleMapsId = "m" + random.nextInt(2000);
+      if (random.nextBoolean()) {
+        registry.put(googleMapsId, "marker" + i);
+        expected.put(googleMapsId, "marker" + i);
+      } else {
+        assertEquals(expected.remove(googleMapsId), registry.remove(googleMapsId));
+      }
+    }
+
+    assertEquals(expected.size(), registry.size());
+    for (int i = 0; i < 2000; i++) {
+      assertEquals(expected.get("m" + i), registry.get("m" + i));
+    }
+  }
+}
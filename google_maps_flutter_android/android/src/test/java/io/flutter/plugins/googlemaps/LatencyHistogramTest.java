@@ -0,0 +1,44 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void indexOf_BucketsAreContiguous() {
+    for (int index = 1; index < LatencyHistogram.indexOf(Long.MAX_VALUE); index++) {
+      final long lowerBound = LatencyHistogram.getLowerBound(index);
+      assertEquals(index, LatencyHistogram.indexOf(lowerBound));
+      assertEquals(index - 1, LatencyHistogram.indexOf(lowerBound - 1));
+    }
+  }
+
+  @Test
+  public void getPercentile_IsWithinBucketPrecision() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (long duration = 1; duration <= 1000; duration++) {
+      histogram.record(duration * 1000);
+    }
+
+    assertWithin(500000, histogram.getPercentile(0.5));
+    assertWithin(950000, histogram.getPercentile(0.95));
+    assertWithin(990000, histogram.getPercentile(0.99));
+  }
+
+  @Test
+  public void getPercentile_ReturnsZeroWithoutDurations() {
+    assertEquals(0, new LatencyHistogram().getPercentile(0.5));
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    assertTrue(
+        "Expected " + expected + " but was " + actual, Math.abs(actual - expected) <= expected / 16);
+  }
+}
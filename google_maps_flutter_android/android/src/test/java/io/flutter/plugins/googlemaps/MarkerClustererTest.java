@@ -0,0 +1,86 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class MarkerClustererTest {
+
+  private static MarkerClusterer.Item item(String markerId, double latitude, double longitude) {
+    return new MarkerClusterer.Item(markerId, null, new LatLng(latitude, longitude));
+  }
+
+  @Test
+  public void cluster_GroupsNearbyMarkersAtLowZoom() {
+    final MarkerClusterer clusterer = new MarkerClusterer(60);
+    final List<MarkerClusterer.Item> items =
+        Arrays.asList(
+            item("a", -23.5505, -46.6333), item("b", -23.5510, -46.6340), item("c", 40.7, -74.0));
+
+    final List<MarkerClusterer.Cluster> clusters = clusterer.cluster(items, 5);
+
+    assertEquals(2, clusters.size());
+    assertEquals(Arrays.asList("a", "b"), clusters.get(0).getMarkerIds());
+    assertEquals(Arrays.asList("c"), clusters.get(1).getMarkerIds());
+  }
+
+  @Test
+  public void cluster_SplitsClustersAtHighZoom() {
+    final MarkerClusterer clusterer = new MarkerClusterer(60);
+    final List<MarkerClusterer.Item> items =
+        Arrays.asList(item("a", -23.5505, -46.6333), item("b", -23.5605, -46.6433));
+
+    assertEquals(1, clusterer.cluster(items, 10).size());
+    assertEquals(2, clusterer.cluster(items, 16).size());
+  }
+
+  @Test
+  public void cluster_PositionsClusterAtCentroid() {
+    final MarkerClusterer clusterer = new MarkerClusterer(60);
+    final List<MarkerClusterer.Item> items = Arrays.asList(item("a", 10, 20), item("b", 10.2, 20.4));
+
+    final LatLng position = clusterer.cluster(items, 1).get(0).getPosition();
+
+    assertEquals(10.1, position.latitude, 1e-9);
+    assertEquals(20.2, position.longitude, 1e-9);
+  }
+
+  @Test
+  public void getKey_DependsOnMembers() {
+    final MarkerClusterer clusterer = new MarkerClusterer(60);
+    final MarkerClusterer.Item a = item("a", 10, 20);
+    final MarkerClusterer.Item b = item("b", 10.1, 20.1);
+    final MarkerClusterer.Item c = item("c", 10.1, 20.1);
+
+    final String key = clusterer.cluster(Arrays.asList(a, b), 3).get(0).getKey();
+
+    assertEquals(key, clusterer.cluster(Arrays.asList(a, b), 3).get(0).getKey());
+    assertNotEquals(key, clusterer.cluster(Arrays.asList(a, c), 3).get(0).getKey());
+    assertEquals(
+        MarkerClusterer.getKey("a"), clusterer.cluster(Arrays.asList(a), 3).get(0).getKey());
+  }
+
+  @Test
+  public void getKey_DependsOnMemberPositions() {
+    final MarkerClusterer clusterer = new MarkerClusterer(60);
+    final MarkerClusterer.Item a = item("a", 10, 20);
+    final MarkerClusterer.Item b = item("b", 10.1, 20.1);
+    final MarkerClusterer.Item movedB = item("b", 10.2, 20.1);
+
+    final MarkerClusterer.Cluster cluster = clusterer.cluster(Arrays.asList(a, b), 3).get(0);
+    final MarkerClusterer.Cluster movedCluster =
+        clusterer.cluster(Arrays.asList(a, movedB), 3).get(0);
+
+    // Same cell and markers, but a new centroid.
+    assertEquals(cluster.cell, movedCluster.cell);
+    assertNotEquals(cluster.getKey(), movedCluster.getKey());
+  }
+}
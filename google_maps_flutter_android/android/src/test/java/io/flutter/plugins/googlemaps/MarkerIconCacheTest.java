@@ -0,0 +1,68 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import java.util.Map;
+import org.junit.Test;
+
+public class MarkerIconCacheTest {
+
+  private static MarkerIconCache.Key bubble(String text) {
+    return new MarkerIconCache.Key(MarkerIconCache.KIND_BUBBLE, text);
+  }
+
+  @Test
+  public void get_ReturnsCachedDescriptor() {
+    final MarkerIconCache cache = new MarkerIconCache(4, 1024);
+    final BitmapDescriptor descriptor = mock(BitmapDescriptor.class);
+
+    assertNull(cache.get(bubble("$450")));
+    cache.put(bubble("$450"), descriptor, 100);
+
+    assertSame(descriptor, cache.get(bubble("$450")));
+    final Map<String, Object> stats = cache.getStats();
+    assertEquals(1L, stats.get("hits"));
+    assertEquals(1L, stats.get("misses"));
+  }
+
+  @Test
+  public void get_DistinguishesKinds() {
+    final MarkerIconCache cache = new MarkerIconCache(4, 1024);
+    cache.put(bubble("12"), mock(BitmapDescriptor.class), 100);
+
+    assertNull(cache.get(new MarkerIconCache.Key(MarkerIconCache.KIND_CLUSTER, "12")));
+  }
+
+  @Test
+  public void put_EvictsLeastRecentlyUsedWhenFull() {
+    final MarkerIconCache cache = new MarkerIconCache(2, 1024);
+    cache.put(bubble("$1"), mock(BitmapDescriptor.class), 10);
+    cache.put(bubble("$2"), mock(BitmapDescriptor.class), 10);
+    cache.get(bubble("$1"));
+    cache.put(bubble("$3"), mock(BitmapDescriptor.class), 10);
+
+    assertNull(cache.get(bubble("$2")));
+    assertEquals(2, cache.size());
+    assertEquals(1L, cache.getStats().get("evictions"));
+  }
+
+  @Test
+  public void put_EvictsWhenByteLimitExceeded() {
+    final MarkerIconCache cache = new MarkerIconCache(10, 250);
+    cache.put(bubble("$1"), mock(BitmapDescriptor.class), 100);
+    cache.put(bubble("$2"), mock(BitmapDescriptor.class), 100);
+    cache.put(bubble("$3"), mock(BitmapDescriptor.class), 100);
+
+    assertEquals(2, cache.size());
+    assertEquals(200, cache.byteSize());
+    assertNull(cache.get(bubble("$1")));
+  }
+}
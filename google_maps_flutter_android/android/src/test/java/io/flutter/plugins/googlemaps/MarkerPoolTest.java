@@ -0,0 +1,64 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.android.gms.maps.model.Marker;
+import java.util.Map;
+import org.junit.Test;
+
+public class MarkerPoolTest {
+
+  @Test
+  public void acquire_ReturnsReleasedMarker() {
+    final MarkerPool pool = new MarkerPool(2);
+    final Marker marker = mock(Marker.class);
+
+    assertNull(pool.acquire());
+    pool.release(marker);
+
+    verify(marker).setVisible(false);
+    verify(marker, never()).remove();
+    assertSame(marker, pool.acquire());
+    final Map<String, Object> stats = pool.getStats();
+    assertEquals(1L, stats.get("hits"));
+    assertEquals(1L, stats.get("freshAdds"));
+  }
+
+  @Test
+  public void release_RemovesMarkerWhenFull() {
+    final MarkerPool pool = new MarkerPool(1);
+    final Marker pooled = mock(Marker.class);
+    final Marker discarded = mock(Marker.class);
+
+    pool.release(pooled);
+    pool.release(discarded);
+
+    verify(discarded).remove();
+    assertEquals(1, pool.size());
+    assertEquals(1L, pool.getStats().get("discards"));
+  }
+
+  @Test
+  public void setMaxSize_RemovesExcessMarkers() {
+    final MarkerPool pool = new MarkerPool(2);
+    final Marker first = mock(Marker.class);
+    final Marker second = mock(Marker.class);
+    pool.release(first);
+    pool.release(second);
+
+    pool.setMaxSize(1);
+
+    verify(second).remove();
+    verify(first, never()).remove();
+    assertEquals(1, pool.size());
+  }
+}
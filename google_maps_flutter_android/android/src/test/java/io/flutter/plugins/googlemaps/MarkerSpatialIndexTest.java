@@ -0,0 +1,92 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class MarkerSpatialIndexTest {
+
+  private static MarkerClusterer.Item item(String markerId, double latitude, double longitude) {
+    return new MarkerClusterer.Item(markerId, null, new LatLng(latitude, longitude));
+  }
+
+  private static List<String> markerIds(List<MarkerClusterer.Item> items) {
+    final List<String> markerIds = new ArrayList<>();
+    for (MarkerClusterer.Item item : items) {
+      markerIds.add(item.markerId);
+    }
+    Collections.sort(markerIds);
+    return markerIds;
+  }
+
+  private static LatLngBounds bounds(double south, double west, double north, double east) {
+    return new LatLngBounds(new LatLng(south, west), new LatLng(north, east));
+  }
+
+  @Test
+  public void query_ReturnsMarkersWithinBounds() {
+    final MarkerSpatialIndex index = new MarkerSpatialIndex();
+    index.put(item("paulista", -23.5614, -46.6559));
+    index.put(item("pinheiros", -23.5670, -46.6920));
+    index.put(item("rio", -22.9068, -43.1729));
+
+    assertEquals(
+        Collections.singletonList("paulista"),
+        markerIds(index.query(bounds(-23.58, -46.67, -23.55, -46.64), 0)));
+  }
+
+  @Test
+  public void query_GrowsBoundsByMargin() {
+    final MarkerSpatialIndex index = new MarkerSpatialIndex();
+    index.put(item("paulista", -23.5614, -46.6559));
+    index.put(item("pinheiros", -23.5670, -46.6920));
+
+    assertEquals(2, index.query(bounds(-23.58, -46.67, -23.55, -46.64), 1).size());
+  }
+
+  @Test
+  public void query_HandlesBoundsAcrossAntimeridian() {
+    final MarkerSpatialIndex index = new MarkerSpatialIndex();
+    index.put(item("fiji", -17.7, 178.0));
+    index.put(item("samoa", -13.8, -172.0));
+    index.put(item("sydney", -33.9, 151.2));
+
+    assertEquals(
+        Arrays.asList("fiji", "samoa"),
+        markerIds(index.query(bounds(-20, 170, -10, -170), 0)));
+  }
+
+  @Test
+  public void query_ScansMarkersWhenRegionIsLarge() {
+    final MarkerSpatialIndex index = new MarkerSpatialIndex();
+    index.put(item("a", 60, -100));
+    index.put(item("b", -30, 120));
+
+    assertEquals(2, index.query(bounds(-80, -179, 80, 179), 0.5).size());
+  }
+
+  @Test
+  public void remove_DropsMarkerFromQueries() {
+    final MarkerSpatialIndex index = new MarkerSpatialIndex();
+    index.put(item("paulista", -23.5614, -46.6559));
+    index.put(item("paulista", 40.7, -74.0));
+
+    assertEquals(1, index.size());
+    assertTrue(index.query(bounds(-23.58, -46.67, -23.55, -46.64), 0).isEmpty());
+    index.remove("paulista");
+    assertFalse(index.containsKey("paulista"));
+    assertTrue(index.query(bounds(40, -75, 41, -73), 0).isEmpty());
+  }
+}
@@ -4,15 +4,29 @@
 
 package io.flutter.plugins.googlemaps;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
+import android.graphics.Bitmap;
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.Projection;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.VisibleRegion;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodCodec;
@@ -22,15 +36,28 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 public class MarkersControllerTest {
 
+  private static MarkersController createController(
+      MethodChannel methodChannel, CozyMarkerBuilder cozyMarkerBuilder) {
+    return new MarkersController(
+        methodChannel,
+        cozyMarkerBuilder,
+        new MarkerIconCache(),
+        Runnable::run,
+        Runnable::run,
+        Runnable::run);
+  }
+
   @Test
   public void controller_OnMarkerDragStart() {
     final MethodChannel methodChannel =
         spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
-    final MarkersController controller = new MarkersController(methodChannel);
+    final MarkersController controller = createController(methodChannel, mock(CozyMarkerBuilder.class));
     final GoogleMap googleMap = mock(GoogleMap.class);
     controller.setGoogleMap(googleMap);
 
@@ -63,7 +90,7 @@ public class MarkersControllerTest {
   public void controller_OnMarkerDragEnd() {
     final MethodChannel methodChannel =
         spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
-    final MarkersController controller = new MarkersController(methodChannel);
+    final MarkersController controller = createController(methodChannel, mock(CozyMarkerBuilder.class));
     final GoogleMap googleMap = mock(GoogleMap.class);
     controller.setGoogleMap(googleMap);
 
@@ -96,7 +123,7 @@ public class MarkersControllerTest {
   public void controller_OnMarkerDrag() {
     final MethodChannel methodChannel =
         spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
-    final MarkersController controller = new MarkersController(methodChannel);
+    final MarkersController controller = createController(methodChannel, mock(CozyMarkerBuilder.class));
     final GoogleMap googleMap = mock(GoogleMap.class);
     controller.setGoogleMap(googleMap);
 
@@ -124,4 +151,479 @@ public class MarkersControllerTest {
     data.put("position", points);
     Mockito.verify(methodChannel).invokeMethod("marker#onDrag", data);
   }
+
+  @Test
+  public void controller_ReusesCachedIconsForEqualPrices() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final CozyMarkerBuilder cozyMarkerBuilder = mock(CozyMarkerBuilder.class);
+    final MarkersController controller = createController(methodChannel, cozyMarkerBuilder);
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+
+    final Marker marker = mock(Marker.class);
+    when(marker.getId()).thenReturn("m1");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker);
+    when(cozyMarkerBuilder.addBubbleMarkerText(any(String.class))).thenReturn(mock(Bitmap.class));
+
+    final List<Object> markers = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final Map<String, Object> markerOptions = new HashMap<>();
+      markerOptions.put("markerId", "marker" + i);
+      markerOptions.put("price", "$450");
+      markers.add(markerOptions);
+    }
+
+    try (MockedStatic<BitmapDescriptorFactory> factory = mockStatic(BitmapDescriptorFactory.class)) {
+      factory
+          .when(() -> BitmapDescriptorFactory.fromBitmap(any(Bitmap.class)))
+          .thenReturn(mock(BitmapDescriptor.class));
+      controller.addMarkers(markers);
+    }
+
+    Mockito.verify(cozyMarkerBuilder, times(1)).addBubbleMarkerText("$450");
+    final Map<String, Object> stats = controller.getIconCacheStats();
+    assertEquals(2L, stats.get("hits"));
+    assertEquals(1L, stats.get("misses"));
+  }
+
+  @Test
+  public void controller_AppliesChangesAfterPendingAdds() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final List<Runnable> iconTasks = new ArrayList<>();
+    final MarkersController controller =
+        new MarkersController(
+            methodChannel,
+            mock(CozyMarkerBuilder.class),
+            new MarkerIconCache(),
+            iconTasks::add,
+            Runnable::run,
+            Runnable::run);
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+
+    final Marker marker = mock(Marker.class);
+    when(marker.getId()).thenReturn("m1");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker);
+
+    final Map<String, Object> markerOptions = new HashMap<>();
+    markerOptions.put("markerId", "marker1");
+    controller.addMarkers(Arrays.<Object>asList(markerOptions));
+
+    final Map<String, Object> changedOptions = new HashMap<>();
+    changedOptions.put("markerId", "marker1");
+    changedOptions.put("alpha", 0.5);
+    controller.changeMarkers(Arrays.<Object>asList(changedOptions));
+    controller.removeMarkers(Arrays.<Object>asList("marker1"));
+
+    Mockito.verify(googleMap, never()).addMarker(any(MarkerOptions.class));
+    Mockito.verify(marker, never()).setAlpha(0.5f);
+
+    iconTasks.get(0).run();
+
+    final InOrder inOrder = inOrder(googleMap, marker);
+    inOrder.verify(googleMap).addMarker(any(MarkerOptions.class));
+    inOrder.verify(marker).setAlpha(0.5f);
+    inOrder.verify(marker).setVisible(false);
+  }
+
+  @Test
+  public void controller_ChangedPriceSwapsIconOfExistingMarker() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final CozyMarkerBuilder cozyMarkerBuilder = mock(CozyMarkerBuilder.class);
+    final MarkersController controller = createController(methodChannel, cozyMarkerBuilder);
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+
+    final Marker marker = mock(Marker.class);
+    when(marker.getId()).thenReturn("m1");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker);
+    final Bitmap oldBitmap = mock(Bitmap.class);
+    final Bitmap newBitmap = mock(Bitmap.class);
+    when(cozyMarkerBuilder.addBubbleMarkerText("$450")).thenReturn(oldBitmap);
+    when(cozyMarkerBuilder.addBubbleMarkerText("$500")).thenReturn(newBitmap);
+    final BitmapDescriptor newIcon = mock(BitmapDescriptor.class);
+
+    final Map<String, Object> markerOptions = new HashMap<>();
+    markerOptions.put("markerId", "marker1");
+    markerOptions.put("price", "$450");
+
+    try (MockedStatic<BitmapDescriptorFactory> factory = mockStatic(BitmapDescriptorFactory.class)) {
+      factory
+          .when(() -> BitmapDescriptorFactory.fromBitmap(oldBitmap))
+          .thenReturn(mock(BitmapDescriptor.class));
+      factory.when(() -> BitmapDescriptorFactory.fromBitmap(newBitmap)).thenReturn(newIcon);
+      controller.addMarkers(Arrays.<Object>asList(markerOptions));
+      controller.changeMarkers(Arrays.<Object>asList(markerOptions));
+      Mockito.verify(marker, never()).setIcon(any(BitmapDescriptor.class));
+
+      final Map<String, Object> changedOptions = new HashMap<>(markerOptions);
+      changedOptions.put("price", "$500");
+      controller.changeMarkers(Arrays.<Object>asList(changedOptions));
+    }
+
+    Mockito.verify(marker).setIcon(newIcon);
+    Mockito.verify(marker, never()).remove();
+    Mockito.verify(googleMap, times(1)).addMarker(any(MarkerOptions.class));
+    Mockito.verify(cozyMarkerBuilder, times(1)).addBubbleMarkerText("$450");
+  }
+
+  @Test
+  public void controller_RemovedPriceRestoresDefaultIcon() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final CozyMarkerBuilder cozyMarkerBuilder = mock(CozyMarkerBuilder.class);
+    final MarkersController controller = createController(methodChannel, cozyMarkerBuilder);
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+
+    final Marker marker = mock(Marker.class);
+    when(marker.getId()).thenReturn("m1");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker);
+    when(cozyMarkerBuilder.addBubbleMarkerText("$450")).thenReturn(mock(Bitmap.class));
+    final BitmapDescriptor defaultIcon = mock(BitmapDescriptor.class);
+
+    final Map<String, Object> markerOptions = new HashMap<>();
+    markerOptions.put("markerId", "marker1");
+    markerOptions.put("price", "$450");
+
+    try (MockedStatic<BitmapDescriptorFactory> factory = mockStatic(BitmapDescriptorFactory.class)) {
+      factory
+          .when(() -> BitmapDescriptorFactory.fromBitmap(any(Bitmap.class)))
+          .thenReturn(mock(BitmapDescriptor.class));
+      factory.when(BitmapDescriptorFactory::defaultMarker).thenReturn(defaultIcon);
+      controller.addMarkers(Arrays.<Object>asList(markerOptions));
+
+      final Map<String, Object> changedOptions = new HashMap<>();
+      changedOptions.put("markerId", "marker1");
+      controller.changeMarkers(Arrays.<Object>asList(changedOptions));
+      controller.changeMarkers(Arrays.<Object>asList(changedOptions));
+    }
+
+    // Only once: the second change has no Cozy icon to clear.
+    Mockito.verify(marker, times(1)).setIcon(defaultIcon);
+  }
+
+  @Test
+  public void controller_ChangedPriceReusesIconRenderedMeanwhile() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final CozyMarkerBuilder cozyMarkerBuilder = mock(CozyMarkerBuilder.class);
+    final List<Runnable> iconTasks = new ArrayList<>();
+    final MarkersController controller =
+        new MarkersController(
+            methodChannel,
+            cozyMarkerBuilder,
+            new MarkerIconCache(),
+            iconTasks::add,
+            Runnable::run,
+            Runnable::run);
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+    final Marker marker1 = mock(Marker.class);
+    final Marker marker2 = mock(Marker.class);
+    when(marker1.getId()).thenReturn("m1");
+    when(marker2.getId()).thenReturn("m2");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker1, marker2);
+    when(cozyMarkerBuilder.addBubbleMarkerText(any(String.class))).thenReturn(mock(Bitmap.class));
+
+    final Map<String, Object> marker1Options = new HashMap<>();
+    marker1Options.put("markerId", "marker1");
+    marker1Options.put("price", "$450");
+    final Map<String, Object> changedMarker1Options = new HashMap<>(marker1Options);
+    changedMarker1Options.put("price", "$500");
+    final Map<String, Object> marker2Options = new HashMap<>();
+    marker2Options.put("markerId", "marker2");
+    marker2Options.put("price", "$500");
+
+    try (MockedStatic<BitmapDescriptorFactory> factory = mockStatic(BitmapDescriptorFactory.class)) {
+      factory
+          .when(() -> BitmapDescriptorFactory.fromBitmap(any(Bitmap.class)))
+          .thenReturn(mock(BitmapDescriptor.class));
+      controller.addMarkers(Arrays.<Object>asList(marker1Options));
+      iconTasks.remove(0).run();
+      controller.changeMarkers(Arrays.<Object>asList(changedMarker1Options));
+      controller.addMarkers(Arrays.<Object>asList(marker2Options));
+      // The icon of the added marker is rendered before the one of the change.
+      iconTasks.remove(1).run();
+      iconTasks.remove(0).run();
+    }
+
+    Mockito.verify(cozyMarkerBuilder, times(1)).addBubbleMarkerText("$500");
+    Mockito.verify(marker1).setIcon(any(BitmapDescriptor.class));
+  }
+
+  @Test
+  public void controller_FailedIconRenderFallsBackToDefaultIcon() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final CozyMarkerBuilder cozyMarkerBuilder = mock(CozyMarkerBuilder.class);
+    final List<Runnable> iconTasks = new ArrayList<>();
+    final MarkersController controller =
+        new MarkersController(
+            methodChannel,
+            cozyMarkerBuilder,
+            new MarkerIconCache(),
+            iconTasks::add,
+            Runnable::run,
+            Runnable::run);
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+    final Marker marker = mock(Marker.class);
+    when(marker.getId()).thenReturn("m1");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker);
+    when(cozyMarkerBuilder.addBubbleMarkerText(any(String.class)))
+        .thenThrow(new OutOfMemoryError());
+    final BitmapDescriptor defaultIcon = mock(BitmapDescriptor.class);
+    final MethodChannel.Result addResult = mock(MethodChannel.Result.class);
+    final MethodChannel.Result changeResult = mock(MethodChannel.Result.class);
+
+    final Map<String, Object> markerOptions = new HashMap<>();
+    markerOptions.put("markerId", "marker1");
+    markerOptions.put("price", "$450");
+    controller.addMarkers(Arrays.<Object>asList(markerOptions));
+    controller.notifyWhenApplied(addResult);
+    iconTasks.remove(0).run();
+
+    Mockito.verify(googleMap).addMarker(any(MarkerOptions.class));
+    Mockito.verify(addResult).success(null);
+
+    final Map<String, Object> changedOptions = new HashMap<>(markerOptions);
+    changedOptions.put("price", "$500");
+    try (MockedStatic<BitmapDescriptorFactory> factory = mockStatic(BitmapDescriptorFactory.class)) {
+      factory.when(BitmapDescriptorFactory::defaultMarker).thenReturn(defaultIcon);
+      controller.changeMarkers(Arrays.<Object>asList(changedOptions));
+      controller.notifyWhenApplied(changeResult);
+      iconTasks.remove(0).run();
+    }
+
+    Mockito.verify(marker).setIcon(defaultIcon);
+    Mockito.verify(changeResult).success(null);
+  }
+
+  @Test
+  public void controller_DisposeCompletesQueuedCalls() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final List<Runnable> iconTasks = new ArrayList<>();
+    final MarkersController controller =
+        new MarkersController(
+            methodChannel,
+            mock(CozyMarkerBuilder.class),
+            new MarkerIconCache(),
+            iconTasks::add,
+            Runnable::run,
+            Runnable::run);
+    controller.setGoogleMap(mock(GoogleMap.class));
+    final MethodChannel.Result updateResult = mock(MethodChannel.Result.class);
+    final MethodChannel.Result infoWindowResult = mock(MethodChannel.Result.class);
+
+    final Map<String, Object> markerOptions = new HashMap<>();
+    markerOptions.put("markerId", "marker1");
+    controller.addMarkers(Arrays.<Object>asList(markerOptions));
+    controller.notifyWhenApplied(updateResult);
+    controller.showMarkerInfoWindow("marker1", infoWindowResult);
+    Mockito.verifyNoInteractions(updateResult, infoWindowResult);
+
+    controller.dispose();
+
+    Mockito.verify(updateResult).success(null);
+    Mockito.verify(infoWindowResult).error(eq("Disposed"), any(String.class), isNull());
+  }
+
+  @Test
+  public void controller_DisposeRemovesPooledMarkers() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final MarkersController controller =
+        createController(methodChannel, mock(CozyMarkerBuilder.class));
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+    final Marker marker = mock(Marker.class);
+    when(marker.getId()).thenReturn("m1");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker);
+
+    final Map<String, Object> markerOptions = new HashMap<>();
+    markerOptions.put("markerId", "marker1");
+    controller.addMarkers(Arrays.<Object>asList(markerOptions));
+    controller.removeMarkers(Arrays.<Object>asList("marker1"));
+    Mockito.verify(marker, never()).remove();
+
+    controller.dispose();
+
+    Mockito.verify(marker).remove();
+    assertEquals(0, controller.getMarkerPoolStats().get("pooled"));
+  }
+
+  @Test
+  public void controller_ClustersNearbyMarkersAndReportsClusterTaps() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final CozyMarkerBuilder cozyMarkerBuilder = mock(CozyMarkerBuilder.class);
+    final MarkersController controller = createController(methodChannel, cozyMarkerBuilder);
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+    when(googleMap.getCameraPosition())
+        .thenReturn(new CameraPosition(new LatLng(-23.55, -46.63), 5, 0, 0));
+
+    final Marker clusterMarker = mock(Marker.class);
+    when(clusterMarker.getId()).thenReturn("m1");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(clusterMarker);
+    when(cozyMarkerBuilder.addClusterMarkerText("2")).thenReturn(mock(Bitmap.class));
+
+    final List<Object> markers = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      final Map<String, Object> markerOptions = new HashMap<>();
+      markerOptions.put("markerId", "marker" + i);
+      markerOptions.put("position", Arrays.asList(-23.55 + i * 0.5, -46.63));
+      markers.add(markerOptions);
+    }
+
+    try (MockedStatic<BitmapDescriptorFactory> factory = mockStatic(BitmapDescriptorFactory.class)) {
+      factory
+          .when(() -> BitmapDescriptorFactory.fromBitmap(any(Bitmap.class)))
+          .thenReturn(mock(BitmapDescriptor.class));
+      controller.setClustering(true, MarkerClusterer.DEFAULT_GRID_SIZE);
+      controller.addMarkers(markers);
+    }
+
+    Mockito.verify(googleMap, times(1)).addMarker(any(MarkerOptions.class));
+    Mockito.verify(cozyMarkerBuilder).addClusterMarkerText("2");
+
+    assertEquals(false, controller.onMarkerTap("m1"));
+    final Map<String, Object> data = new HashMap<>();
+    data.put("markerIds", Arrays.asList("marker0", "marker1"));
+    data.put("position", Arrays.asList(-23.3, -46.63));
+    data.put("count", 2);
+    Mockito.verify(methodChannel).invokeMethod("cluster#onTap", data);
+    Mockito.verify(methodChannel, never()).invokeMethod(Mockito.eq("marker#onTap"), any());
+  }
+
+  @Test
+  public void controller_OnlyAddsMarkersNearVisibleRegionWhenCulling() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final MarkersController controller =
+        createController(methodChannel, mock(CozyMarkerBuilder.class));
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+    when(googleMap.getCameraPosition())
+        .thenReturn(new CameraPosition(new LatLng(-23.56, -46.65), 14, 0, 0));
+    final Projection projection = mock(Projection.class);
+    when(googleMap.getProjection()).thenReturn(projection);
+    final LatLngBounds saoPaulo =
+        new LatLngBounds(new LatLng(-23.58, -46.67), new LatLng(-23.55, -46.64));
+    final LatLngBounds rio = new LatLngBounds(new LatLng(-22.92, -43.19), new LatLng(-22.89, -43.16));
+    when(projection.getVisibleRegion())
+        .thenReturn(new VisibleRegion(null, null, null, null, saoPaulo));
+
+    final Marker marker = mock(Marker.class);
+    when(marker.getId()).thenReturn("m1");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker);
+
+    final Map<String, Object> saoPauloOptions = new HashMap<>();
+    saoPauloOptions.put("markerId", "saoPaulo");
+    saoPauloOptions.put("position", Arrays.asList(-23.5614, -46.6559));
+    final Map<String, Object> rioOptions = new HashMap<>();
+    rioOptions.put("markerId", "rio");
+    rioOptions.put("position", Arrays.asList(-22.9068, -43.1729));
+
+    controller.setViewportCulling(true, MarkersController.DEFAULT_VIEWPORT_MARGIN);
+    controller.addMarkers(Arrays.<Object>asList(saoPauloOptions, rioOptions));
+
+    Mockito.verify(googleMap, times(1)).addMarker(any(MarkerOptions.class));
+    controller.onMarkerTap("m1");
+    Mockito.verify(methodChannel)
+        .invokeMethod("marker#onTap", Convert.markerIdToJson("saoPaulo"));
+
+    when(projection.getVisibleRegion())
+        .thenReturn(new VisibleRegion(null, null, null, null, rio));
+    controller.onCameraIdle();
+
+    // The marker of Sao Paulo is hidden and reused for Rio.
+    final InOrder inOrder = inOrder(marker);
+    inOrder.verify(marker).setVisible(false);
+    inOrder.verify(marker).setPosition(new LatLng(-22.9068, -43.1729));
+    inOrder.verify(marker).setVisible(true);
+    Mockito.verify(googleMap, times(1)).addMarker(any(MarkerOptions.class));
+    controller.onMarkerTap("m1");
+    Mockito.verify(methodChannel).invokeMethod("marker#onTap", Convert.markerIdToJson("rio"));
+  }
+
+  @Test
+  public void controller_ReusesRemovedMarkers() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final MarkersController controller =
+        createController(methodChannel, mock(CozyMarkerBuilder.class));
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+
+    final Marker marker = mock(Marker.class);
+    when(marker.getId()).thenReturn("m1");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker);
+
+    final Map<String, Object> markerOptions = new HashMap<>();
+    markerOptions.put("markerId", "marker1");
+    markerOptions.put("position", Arrays.asList(1.0, 2.0));
+    controller.addMarkers(Arrays.<Object>asList(markerOptions));
+    controller.removeMarkers(Arrays.<Object>asList("marker1"));
+
+    final Map<String, Object> otherOptions = new HashMap<>();
+    otherOptions.put("markerId", "marker2");
+    otherOptions.put("position", Arrays.asList(3.0, 4.0));
+    controller.addMarkers(Arrays.<Object>asList(otherOptions));
+
+    Mockito.verify(googleMap, times(1)).addMarker(any(MarkerOptions.class));
+    Mockito.verify(marker, never()).remove();
+    Mockito.verify(marker).setPosition(new LatLng(3.0, 4.0));
+    controller.onMarkerTap("m1");
+    Mockito.verify(methodChannel).invokeMethod("marker#onTap", Convert.markerIdToJson("marker2"));
+    final Map<String, Object> stats = controller.getMarkerPoolStats();
+    assertEquals(1L, stats.get("hits"));
+    assertEquals(1L, stats.get("freshAdds"));
+  }
+
+  @Test
+  public void controller_SpreadsUpdateOverFramesAndCompletesWhenApplied() {
+    final MethodChannel methodChannel =
+        spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
+    final List<Runnable> frameCallbacks = new ArrayList<>();
+    final MarkersController controller =
+        new MarkersController(
+            methodChannel,
+            mock(CozyMarkerBuilder.class),
+            new MarkerIconCache(),
+            Runnable::run,
+            Runnable::run,
+            frameCallbacks::add);
+    controller.setFrameBudget(0);
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    controller.setGoogleMap(googleMap);
+    final Marker marker = mock(Marker.class);
+    when(marker.getId()).thenReturn("m1");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker);
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+
+    final List<Object> markers = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final Map<String, Object> markerOptions = new HashMap<>();
+      markerOptions.put("markerId", "marker" + i);
+      markers.add(markerOptions);
+    }
+    controller.addMarkers(markers);
+    controller.notifyWhenApplied(result);
+
+    // A zero budget applies a single operation per frame.
+    Mockito.verify(googleMap, times(1)).addMarker(any(MarkerOptions.class));
+    Mockito.verify(result, never()).success(null);
+    while (!frameCallbacks.isEmpty()) {
+      frameCallbacks.remove(0).run();
+    }
+
+    Mockito.verify(googleMap, times(3)).addMarker(any(MarkerOptions.class));
+    Mockito.verify(result).success(null);
+  }
 }
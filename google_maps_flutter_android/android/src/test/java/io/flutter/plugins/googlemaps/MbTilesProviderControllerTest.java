@@ -0,0 +1,163 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContentValues;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class MbTilesProviderControllerTest {
+  private static final byte[] TILE_DATA = {(byte) 0x89, 'P', 'N', 'G', 0, 1, 2, 3};
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  /** Creates an MBTiles file with a single tile, at x = 1, y = 1 and zoom = 1. */
+  private File createMbTiles() {
+    final File file = new File(folder.getRoot(), "fixture.mbtiles");
+    final SQLiteDatabase database = SQLiteDatabase.openOrCreateDatabase(file, null);
+    database.execSQL("CREATE TABLE metadata (name TEXT, value TEXT)");
+    database.execSQL(
+        "CREATE TABLE tiles (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER,"
+            + " tile_data BLOB)");
+    database.execSQL(
+        "CREATE UNIQUE INDEX tile_index ON tiles (zoom_level, tile_column, tile_row)");
+    final ContentValues tile = new ContentValues();
+    tile.put("zoom_level", 1);
+    tile.put("tile_column", 1);
+    tile.put("tile_row", 0);
+    tile.put("tile_data", TILE_DATA);
+    database.insert("tiles", null, tile);
+    database.close();
+    return file;
+  }
+
+  /** Creates an MBTiles file whose tiles table is a view, as deduplicating tools write them. */
+  private File createMbTilesWithViews() {
+    final File file = new File(folder.getRoot(), "views.mbtiles");
+    final SQLiteDatabase database = SQLiteDatabase.openOrCreateDatabase(file, null);
+    database.execSQL(
+        "CREATE TABLE map (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER,"
+            + " tile_id TEXT)");
+    database.execSQL("CREATE TABLE images (tile_id TEXT, tile_data BLOB)");
+    database.execSQL(
+        "CREATE VIEW tiles AS SELECT map.zoom_level + 0 AS zoom_level,"
+            + " map.tile_column + 0 AS tile_column, map.tile_row + 0 AS tile_row,"
+            + " images.tile_data AS tile_data"
+            + " FROM map JOIN images ON images.tile_id = map.tile_id");
+    database.execSQL("INSERT INTO map VALUES (1, 1, 0, 'a')");
+    final ContentValues image = new ContentValues();
+    image.put("tile_id", "a");
+    image.put("tile_data", TILE_DATA);
+    database.insert("images", null, image);
+    database.close();
+    return file;
+  }
+
+  private static MbTilesProviderController createProvider(File file) {
+    return new MbTilesProviderController("overlay", file.getPath(), 256, null);
+  }
+
+  @Test
+  public void loadTile_ReadsTileOfFlippedRow() {
+    final MbTilesProviderController provider = createProvider(createMbTiles());
+
+    final Tile tile = provider.loadTile(1, 1, 1);
+
+    assertEquals(256, tile.width);
+    assertEquals(256, tile.height);
+    assertArrayEquals(TILE_DATA, tile.data);
+    assertEquals(1L, provider.getTileRequestStats().get("reads"));
+    provider.dispose();
+  }
+
+  @Test
+  public void loadTile_ReadsTilesOfViews() {
+    final MbTilesProviderController provider = createProvider(createMbTilesWithViews());
+
+    assertArrayEquals(TILE_DATA, provider.loadTile(1, 1, 1).data);
+    provider.dispose();
+  }
+
+  @Test
+  public void loadTile_ReturnsNoTileForMissingTile() {
+    final MbTilesProviderController provider = createProvider(createMbTiles());
+
+    assertSame(TileProvider.NO_TILE, provider.loadTile(1, 0, 1));
+    assertSame(TileProvider.NO_TILE, provider.loadTile(0, 0, 2));
+
+    final Map<String, Object> stats = provider.getTileRequestStats();
+    assertEquals(2L, stats.get("missing"));
+    assertEquals(0L, stats.get("failures"));
+    provider.dispose();
+  }
+
+  @Test
+  public void loadTile_ReturnsNoTileForMissingFile() {
+    final MbTilesProviderController provider =
+        createProvider(new File(folder.getRoot(), "missing.mbtiles"));
+
+    assertSame(TileProvider.NO_TILE, provider.loadTile(1, 1, 1));
+    assertSame(TileProvider.NO_TILE, provider.loadTile(1, 1, 1));
+
+    // The file is only tried once.
+    assertEquals(1L, provider.getTileRequestStats().get("failures"));
+    provider.dispose();
+  }
+
+  @Test
+  public void loadTile_ReturnsNoTileForCorruptFileWithoutDeletingIt() throws IOException {
+    final File file = folder.newFile("corrupt.mbtiles");
+    try (FileOutputStream output = new FileOutputStream(file)) {
+      for (int i = 0; i < 1024; i++) {
+        output.write("not an mbtiles file".getBytes("UTF-8"));
+      }
+    }
+    final MbTilesProviderController provider = createProvider(file);
+
+    assertSame(TileProvider.NO_TILE, provider.loadTile(1, 1, 1));
+    assertSame(TileProvider.NO_TILE, provider.loadTile(1, 1, 1));
+
+    assertEquals(1L, provider.getTileRequestStats().get("failures"));
+    assertTrue(file.exists());
+    provider.dispose();
+  }
+
+  @Test
+  public void loadTile_ReturnsNoTileOnceDisposed() {
+    final MbTilesProviderController provider = createProvider(createMbTiles());
+    provider.loadTile(1, 1, 1);
+
+    provider.dispose();
+
+    assertSame(TileProvider.NO_TILE, provider.loadTile(1, 1, 1));
+  }
+
+  @Test
+  public void toTmsRow_CountsRowsFromSouth() {
+    assertEquals(0, MbTilesProviderController.toTmsRow(0, 0));
+    assertEquals(7, MbTilesProviderController.toTmsRow(0, 3));
+    assertEquals(0, MbTilesProviderController.toTmsRow(7, 3));
+    assertEquals((1L << 30) - 1, MbTilesProviderController.toTmsRow(0, 30));
+  }
+}
@@ -0,0 +1,60 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class PointRingBufferTest {
+
+  private static List<LatLng> points(int from, int to) {
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      points.add(new LatLng(0, i));
+    }
+    return points;
+  }
+
+  @Test
+  public void addAll_DropsOldestPointsBeyondMaxLength() {
+    final PointRingBuffer buffer = new PointRingBuffer(3);
+
+    buffer.addAll(points(0, 2));
+    buffer.addAll(points(2, 4));
+
+    assertEquals(points(1, 4), buffer.toList());
+    buffer.addAll(points(4, 10));
+    assertEquals(points(7, 10), buffer.toList());
+  }
+
+  @Test
+  public void addAll_GrowsWhenUnbounded() {
+    final PointRingBuffer buffer = new PointRingBuffer(PointRingBuffer.UNBOUNDED);
+
+    for (int i = 0; i < 200; i++) {
+      buffer.addAll(Arrays.asList(new LatLng(0, i)));
+    }
+
+    assertEquals(points(0, 200), buffer.toList());
+  }
+
+  @Test
+  public void setMaxLength_KeepsNewestPoints() {
+    final PointRingBuffer buffer = new PointRingBuffer(100);
+    buffer.addAll(points(0, 100));
+    buffer.addAll(points(100, 150));
+
+    buffer.setMaxLength(10);
+
+    assertEquals(points(140, 150), buffer.toList());
+    buffer.addAll(points(150, 152));
+    assertEquals(points(142, 152), buffer.toList());
+  }
+}
@@ -4,11 +4,17 @@
 
 package io.flutter.plugins.googlemaps;
 
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 
 import com.google.android.gms.internal.maps.zzad;
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Polyline;
+import java.util.Arrays;
+import java.util.Collections;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -26,4 +32,42 @@ public class PolylineControllerTest {
 
     Mockito.verify(polyline).setWidth(density * strokeWidth);
   }
+
+  @Test
+  public void appendPoints_DropsOldestPointsBeyondMaxLength() {
+    final zzad z = mock(zzad.class);
+    final Polyline polyline = spy(new Polyline(z));
+    final PolylineController controller = new PolylineController(polyline, false, 1);
+    final LatLng first = new LatLng(0, 0);
+    final LatLng second = new LatLng(0, 1);
+    final LatLng third = new LatLng(0, 2);
+    controller.setPoints(Arrays.asList(first, second));
+
+    controller.appendPoints(Collections.singletonList(third), 2);
+
+    Mockito.verify(polyline).setPoints(Arrays.asList(second, third));
+  }
+
+  @Test
+  public void appendPoints_KeepsSimplifiedPointsUntilSimplifiedAgain() {
+    final zzad z = mock(zzad.class);
+    final Polyline polyline = spy(new Polyline(z));
+    final PolylineController controller = new PolylineController(polyline, false, 1);
+    final LatLng first = new LatLng(0, 0);
+    final LatLng second = new LatLng(0, 1);
+    final LatLng third = new LatLng(0, 2);
+    controller.setPoints(Arrays.asList(first, second));
+    final PolylineSimplifier simplifier = controller.getSimplifier(10, 1);
+    controller.setSimplifiedPoints(simplifier, 10, 1, simplifier.simplify(10, 1));
+
+    controller.appendPoints(Collections.singletonList(third), null);
+
+    Mockito.verify(polyline, never()).setPoints(Arrays.asList(first, second, third));
+    final PolylineSimplifier appendedSimplifier = controller.getSimplifier(10, 1);
+    assertNotNull(appendedSimplifier);
+    controller.setSimplifiedPoints(
+        appendedSimplifier, 10, 1, appendedSimplifier.simplify(10, 1));
+    Mockito.verify(polyline).setPoints(Arrays.asList(first, third));
+    assertNull(controller.getSimplifier(10, 1));
+  }
 }
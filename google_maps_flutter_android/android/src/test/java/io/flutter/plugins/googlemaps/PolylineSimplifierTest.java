@@ -0,0 +1,98 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class PolylineSimplifierTest {
+
+  @Test
+  public void simplify_DropsPointsOnStraightLine() {
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = 0; i <= 100; i++) {
+      points.add(new LatLng(0, i * 0.01));
+    }
+
+    final List<LatLng> simplified = new PolylineSimplifier(points).simplify(20, 1);
+
+    assertEquals(Arrays.asList(points.get(0), points.get(100)), simplified);
+  }
+
+  @Test
+  public void simplify_KeepsDetailsOnlyAtZoomLevelsWhereTheyShow() {
+    // A 0.001 degree spike, about 0.7 pixels at zoom 10 and 23 pixels at zoom 15.
+    final List<LatLng> points =
+        Arrays.asList(
+            new LatLng(0, 0), new LatLng(0, 0.5), new LatLng(0.001, 0.501), new LatLng(0, 1));
+    final PolylineSimplifier simplifier = new PolylineSimplifier(points);
+
+    assertEquals(Arrays.asList(points.get(0), points.get(3)), simplifier.simplify(10, 1));
+    assertSame(points, simplifier.simplify(15, 1));
+  }
+
+  @Test
+  public void simplify_KeepsPointsOfLowerZoomLevels() {
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = 0; i <= 1000; i++) {
+      points.add(new LatLng(Math.sin(i * 0.1) * 0.01 * (i % 7), i * 0.001));
+    }
+    final PolylineSimplifier simplifier = new PolylineSimplifier(points);
+
+    List<LatLng> previous = simplifier.simplify(0, 1);
+    for (int zoom = 1; zoom <= 20; zoom++) {
+      final List<LatLng> simplified = simplifier.simplify(zoom, 1);
+      assertTrue(simplified.containsAll(previous));
+      previous = simplified;
+    }
+  }
+
+  @Test
+  public void forRing_SimplifiesClosingEdge() {
+    // The last point lies on the closing edge, back to the first point.
+    final List<LatLng> ring =
+        Arrays.asList(
+            new LatLng(0, 0), new LatLng(0, 1), new LatLng(1, 1), new LatLng(1, 0),
+            new LatLng(0.5, 0));
+
+    final List<LatLng> simplified = PolylineSimplifier.forRing(ring).simplify(10, 1);
+
+    assertEquals(
+        Arrays.asList(
+            new LatLng(0, 0), new LatLng(0, 1), new LatLng(1, 1), new LatLng(1, 0),
+            new LatLng(0, 0)),
+        simplified);
+  }
+
+  @Test
+  public void forRing_CollapsesRingsSmallerThanTolerance() {
+    final List<LatLng> ring =
+        Arrays.asList(
+            new LatLng(0, 0), new LatLng(0, 0.00001), new LatLng(0.00001, 0.00001),
+            new LatLng(0, 0));
+
+    final List<LatLng> simplified = PolylineSimplifier.forRing(ring).simplify(5, 1);
+
+    assertTrue(simplified.size() < PolylineSimplifier.MIN_RING_SIZE);
+    assertEquals(ring, PolylineSimplifier.forRing(ring).simplify(21, 1));
+  }
+
+  @Test
+  public void rank_FollowsPolylinesAcrossAntimeridian() {
+    final double[] ranks =
+        PolylineSimplifier.rank(
+            Arrays.asList(new LatLng(0, 179), new LatLng(0, -180), new LatLng(0, -179)));
+
+    // Straight across the antimeridian, not around the world.
+    assertEquals(0, ranks[1], 1e-9);
+  }
+}
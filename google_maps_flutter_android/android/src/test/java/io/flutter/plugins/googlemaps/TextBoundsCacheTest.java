@@ -0,0 +1,103 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import org.junit.Test;
+
+public class TextBoundsCacheTest {
+
+  // Measures each label as 10px per char, less 2px of kerning, starting 1px right of the origin.
+  private static Paint createPaint() {
+    final Paint paint = mock(Paint.class);
+    doAnswer(
+            invocation -> {
+              final String text = invocation.getArgument(0);
+              final Rect bounds = invocation.getArgument(3);
+              bounds.left = 1;
+              bounds.top = -12;
+              bounds.right = 1 + text.length() * 10 - 2;
+              bounds.bottom = 3;
+              return null;
+            })
+        .when(paint)
+        .getTextBounds(anyString(), anyInt(), anyInt(), any(Rect.class));
+    return paint;
+  }
+
+  @Test
+  public void getTextBounds_MeasuresWholeLabel() {
+    final Paint paint = createPaint();
+    final TextBoundsCache cache = new TextBoundsCache(paint);
+
+    final Rect bounds = cache.getTextBounds("$450");
+
+    assertEquals(1, bounds.left);
+    assertEquals(39, bounds.right);
+    verify(paint).getTextBounds(eq("$450"), eq(0), eq(4), any(Rect.class));
+    verify(paint, never()).measureText(any(char[].class), anyInt(), anyInt());
+  }
+
+  @Test
+  public void getTextBounds_MeasuresEachLabelOnce() {
+    final Paint paint = createPaint();
+    final TextBoundsCache cache = new TextBoundsCache(paint);
+
+    final Rect bounds = cache.getTextBounds("$450");
+    cache.getTextBounds("$1,200");
+
+    assertSame(bounds, cache.getTextBounds("$450"));
+    verify(paint, times(2)).getTextBounds(anyString(), anyInt(), anyInt(), any(Rect.class));
+  }
+
+  @Test
+  public void getTextBounds_AllocatesNothingForCachedLabels() {
+    final Paint paint = createPaint();
+    final TextBoundsCache cache = new TextBoundsCache(paint);
+    final String[] labels = {"$1", "$450", "$1,200", "$12,500"};
+    for (String label : labels) {
+      cache.getTextBounds(label);
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      for (String label : labels) {
+        cache.getTextBounds(label);
+      }
+    }
+
+    // Only misses allocate bounds.
+    assertEquals(labels.length, cache.getMissCount());
+  }
+
+  @Test
+  public void getTextBounds_EvictsLeastRecentlyUsedLabel() {
+    final Paint paint = createPaint();
+    final TextBoundsCache cache = new TextBoundsCache(paint, 2);
+    cache.getTextBounds("$1");
+    cache.getTextBounds("$2");
+    cache.getTextBounds("$1");
+    cache.getTextBounds("$3");
+
+    cache.getTextBounds("$1");
+    cache.getTextBounds("$2");
+
+    verify(paint, times(1)).getTextBounds(eq("$1"), anyInt(), anyInt(), any(Rect.class));
+    verify(paint, times(2)).getTextBounds(eq("$2"), anyInt(), anyInt(), any(Rect.class));
+    assertEquals(4, cache.getMissCount());
+  }
+}
@@ -0,0 +1,104 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.android.gms.maps.model.Tile;
+import java.io.File;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TileCacheTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static Tile tileOfSize(int size) {
+    return new Tile(256, 256, new byte[size]);
+  }
+
+  @Test
+  public void get_ReturnsTilesFromMemoryUntilEvicted() {
+    final TileCache cache = new TileCache(temporaryFolder.getRoot(), "overlay", "0", 200, 0);
+    final Tile first = tileOfSize(100);
+    cache.put(0, 0, 1, first);
+    cache.put(1, 0, 1, tileOfSize(100));
+
+    assertSame(first, cache.get(0, 0, 1));
+    // The first tile was used last, so the second one is evicted.
+    cache.put(0, 1, 1, tileOfSize(100));
+
+    assertNull(cache.get(1, 0, 1));
+    assertNotNull(cache.get(0, 0, 1));
+    assertNotNull(cache.get(0, 1, 1));
+    final Map<String, Object> stats = cache.getStats();
+    assertEquals(3L, stats.get("memoryHits"));
+    assertEquals(1L, stats.get("misses"));
+    assertEquals(200L, stats.get("memoryBytes"));
+    assertEquals(0.75, (double) stats.get("hitRate"), 1e-9);
+  }
+
+  @Test
+  public void get_ReadsTilesStoredOnDiskByPreviousCache() {
+    final File directory = temporaryFolder.getRoot();
+    final Tile tile = new Tile(512, 256, new byte[] {1, 2, 3});
+    new TileCache(directory, "overlay/1", "0", 0, 1000).put(3, 4, 5, tile);
+
+    final TileCache cache = new TileCache(directory, "overlay/1", "0", 1000, 1000);
+    final Tile stored = cache.get(3, 4, 5);
+
+    assertNotNull(stored);
+    assertEquals(512, stored.width);
+    assertEquals(256, stored.height);
+    assertArrayEquals(tile.data, stored.data);
+    assertNull(cache.get(4, 3, 5));
+    assertEquals(1L, cache.getStats().get("diskHits"));
+    assertEquals(1, cache.getStats().get("memoryEntries"));
+  }
+
+  @Test
+  public void get_IgnoresTilesOfOtherVersions() {
+    final File directory = temporaryFolder.getRoot();
+    new TileCache(directory, "overlay", "1", 0, 1000).put(0, 0, 0, tileOfSize(10));
+
+    final TileCache cache = new TileCache(directory, "overlay", "2", 1000, 1000);
+    assertNull(cache.get(0, 0, 0));
+    cache.put(0, 0, 0, tileOfSize(10));
+    assertTrue(cache.setVersion("3"));
+    assertFalse(cache.setVersion("3"));
+
+    assertNull(cache.get(0, 0, 0));
+    assertEquals(0L, cache.getStats().get("diskBytes"));
+    assertEquals("3", cache.getStats().get("version"));
+  }
+
+  @Test
+  public void put_EvictsLeastRecentlyUsedTilesFromDisk() {
+    final TileCache cache = new TileCache(temporaryFolder.getRoot(), "overlay", "0", 0, 250);
+    cache.put(0, 0, 2, tileOfSize(100));
+    cache.put(1, 0, 2, tileOfSize(100));
+    cache.get(0, 0, 2);
+    cache.put(2, 0, 2, tileOfSize(100));
+
+    assertNotNull(cache.get(0, 0, 2));
+    assertNull(cache.get(1, 0, 2));
+    assertNotNull(cache.get(2, 0, 2));
+  }
+
+  @Test
+  public void put_SkipsTilesWithoutData() {
+    final TileCache cache = new TileCache(temporaryFolder.getRoot(), "overlay", "0", 1000, 1000);
+    cache.put(0, 0, 0, new Tile(256, 256, null));
+
+    assertNull(cache.get(0, 0, 0));
+  }
+}
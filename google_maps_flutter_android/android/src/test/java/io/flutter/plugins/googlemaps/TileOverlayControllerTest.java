@@ -0,0 +1,45 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.android.gms.maps.model.TileOverlay;
+import io.flutter.plugin.common.MethodChannel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TileOverlayControllerTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void setCacheVersion_ClearsTilesOnlyWhenVersionChanges() {
+    final TileOverlay tileOverlay = mock(TileOverlay.class);
+    final TileCache tileCache = new TileCache(temporaryFolder.getRoot(), "overlay", "1", 1000, 0);
+    final TileProviderController tileProvider =
+        new TileProviderController(
+            mock(MethodChannel.class),
+            null,
+            "overlay",
+            tileCache,
+            Runnable::run,
+            (runnable, delayMillis) -> runnable.run());
+    final TileOverlayController controller = new TileOverlayController(tileOverlay, tileProvider);
+
+    // Dart sends the version with every change of the overlay.
+    controller.setCacheVersion("1");
+    controller.setZIndex(2);
+    controller.setCacheVersion("1");
+
+    verify(tileOverlay, never()).clearTileCache();
+
+    controller.setCacheVersion("2");
+
+    verify(tileOverlay).clearTileCache();
+  }
+}
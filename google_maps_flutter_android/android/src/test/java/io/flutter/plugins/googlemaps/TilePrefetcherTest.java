@@ -0,0 +1,112 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.Tile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TilePrefetcherTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /** Returns an empty tile for every request, and records them. */
+  private static class RecordingTileProvider extends AbstractTileProvider {
+    final List<String> loadedTiles = Collections.synchronizedList(new ArrayList<>());
+
+    RecordingTileProvider(TileCache tileCache) {
+      super("overlay", tileCache);
+    }
+
+    @Override
+    Tile loadTile(int x, int y, int zoom) {
+      loadedTiles.add(zoom + "/" + x + "/" + y);
+      return new Tile(256, 256, new byte[] {1});
+    }
+
+    @Override
+    Map<String, Object> getTileRequestStats() {
+      return null;
+    }
+  }
+
+  @Test
+  public void getTiles_ReturnsViewportAndRingNearestFirst() {
+    // A viewport of 2 by 2 tiles centered on the corner of 4 tiles at zoom 4.
+    final List<TilePrefetcher.TileCoordinates> tiles =
+        TilePrefetcher.getTiles(new LatLng(0, 0), 4f, 2, 2);
+
+    final TilePrefetcher.TileCoordinates first = tiles.get(0);
+    assertEquals(4, first.zoom);
+    assertTrue(first.x == 7 || first.x == 8);
+    assertTrue(first.y == 7 || first.y == 8);
+    // 4 by 4 tiles at zoom 4, 4 by 4 at zoom 3 and 6 by 6 at zoom 5.
+    assertEquals(16 + 16 + 36, tiles.size());
+    assertEquals(4, tiles.get(15).zoom);
+    assertEquals(3, tiles.get(16).zoom);
+    assertEquals(5, tiles.get(32).zoom);
+  }
+
+  @Test
+  public void getTiles_WrapsAroundAntimeridian() {
+    final List<TilePrefetcher.TileCoordinates> tiles =
+        TilePrefetcher.getTiles(new LatLng(0, 179.9), 2f, 1, 1);
+
+    boolean hasFirstColumn = false;
+    for (TilePrefetcher.TileCoordinates tile : tiles) {
+      assertTrue(tile.x >= 0 && tile.x < (1 << tile.zoom));
+      hasFirstColumn |= tile.zoom == 2 && tile.x == 0;
+    }
+    assertTrue(hasFirstColumn);
+  }
+
+  @Test
+  public void getTiles_StopsAtMaxTiles() {
+    assertEquals(
+        TilePrefetcher.MAX_TILES, TilePrefetcher.getTiles(new LatLng(0, 0), 10f, 20, 40).size());
+  }
+
+  @Test
+  public void prefetch_LoadsUncachedTilesIntoCache() throws Exception {
+    final TileCache tileCache =
+        new TileCache(temporaryFolder.getRoot(), "overlay", "0", 1 << 20, 0);
+    tileCache.put(7, 7, 4, new Tile(256, 256, new byte[] {2}));
+    final RecordingTileProvider tileProvider = new RecordingTileProvider(tileCache);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    new TilePrefetcher(executor)
+        .prefetch(Collections.singletonList(tileProvider), new LatLng(0, 0), 4f, 2, 2);
+    executor.shutdown();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+
+    assertEquals(16 + 16 + 36 - 1, tileProvider.loadedTiles.size());
+    assertEquals(2, tileCache.get(7, 7, 4).data[0]);
+    assertEquals(1, tileCache.get(8, 8, 4).data[0]);
+  }
+
+  @Test
+  public void prefetch_SkipsTilesWithoutCache() throws Exception {
+    final RecordingTileProvider tileProvider = new RecordingTileProvider(null);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    new TilePrefetcher(executor)
+        .prefetch(Collections.singletonList(tileProvider), new LatLng(0, 0), 4f, 2, 2);
+    executor.shutdown();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+
+    assertEquals(0, tileProvider.loadedTiles.size());
+  }
+}
@@ -0,0 +1,436 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodChannel;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TileProviderControllerTest {
+  private MethodChannel methodChannel;
+  private ExecutorService tileExecutor;
+  private ExecutorService otherTileExecutor;
+
+  @Before
+  public void setUp() {
+    methodChannel = mock(MethodChannel.class);
+    tileExecutor = Executors.newSingleThreadExecutor();
+    otherTileExecutor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    tileExecutor.shutdownNow();
+    otherTileExecutor.shutdownNow();
+  }
+
+  private TileProviderController createController() {
+    return createController(null);
+  }
+
+  private TileProviderController createController(TileDataChannel tileDataChannel) {
+    return new TileProviderController(
+        methodChannel,
+        tileDataChannel,
+        "overlay",
+        null,
+        Runnable::run,
+        (runnable, delayMillis) -> runnable.run());
+  }
+
+  private static Map<String, Object> tileJson(byte[] data) {
+    final Map<String, Object> tile = new HashMap<>();
+    tile.put("width", 256);
+    tile.put("height", 256);
+    tile.put("data", data);
+    return tile;
+  }
+
+  @Test
+  public void getTile_ReturnsTileFromDart() {
+    final Map<String, Object> tile = tileJson(new byte[] {1, 2});
+    doAnswer(
+            invocation -> {
+              ((MethodChannel.Result) invocation.getArgument(2))
+                  .success(tile);
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+
+    final TileProviderController controller = createController();
+    final Tile result = controller.getTile(1, 2, 3);
+
+    assertArrayEquals(new byte[] {1, 2}, result.data);
+    final Map<String, Object> metrics = controller.getTileMetrics();
+    assertEquals(1L, metrics.get("requests"));
+    assertEquals(0, metrics.get("inFlight"));
+    assertEquals(2L, metrics.get("bytes"));
+    assertEquals(0L, metrics.get("noTile"));
+  }
+
+  @Test
+  public void getTile_GivesUpAfterTimeout() {
+    final TileProviderController controller = createController();
+    controller.setTileTimeout(10);
+
+    assertNull(controller.getTile(1, 2, 3));
+    final Map<String, Object> metrics = controller.getTileMetrics();
+    assertEquals(1L, metrics.get("timeouts"));
+    assertEquals(1L, metrics.get("unavailable"));
+    assertEquals(0, ((Map<?, ?>) metrics.get("provider")).get("inFlight"));
+  }
+
+  @Test
+  public void setViewport_CancelsRequestsOfTilesOutOfView() throws Exception {
+    final CountDownLatch requested = new CountDownLatch(2);
+    doAnswer(
+            invocation -> {
+              requested.countDown();
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+    final TileProviderController controller = createController();
+    controller.setTileTimeout(0);
+    final Future<Tile> outOfView = tileExecutor.submit(() -> controller.getTile(5, 9, 4));
+    final Future<Tile> otherZoom = otherTileExecutor.submit(() -> controller.getTile(0, 0, 10));
+    requested.await();
+    awaitInFlight(controller, 2);
+
+    controller.setViewport(
+        new TileViewport(
+            new LatLngBounds(new LatLng(20.0, 10.0), new LatLng(40.0, 30.0)), 4f));
+
+    assertNull(outOfView.get());
+    assertNull(otherZoom.get());
+    assertEquals(2L, controller.getTileRequestStats().get("cancelled"));
+    assertEquals(0L, controller.getTileMetrics().get("timeouts"));
+  }
+
+  @Test
+  public void getTile_SendsQueuedRequestsInOneMainThreadTask() throws Exception {
+    final Map<String, Object> tile = tileJson(new byte[] {1});
+    doAnswer(
+            invocation -> {
+              ((MethodChannel.Result) invocation.getArgument(2)).success(tile);
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+    final List<Runnable> mainTasks = new CopyOnWriteArrayList<>();
+    final TileProviderController controller =
+        new TileProviderController(
+            methodChannel,
+            null,
+            "overlay",
+            null,
+            mainTasks::add,
+            (runnable, delayMillis) -> runnable.run());
+    final Future<Tile> first = tileExecutor.submit(() -> controller.getTile(1, 2, 3));
+    final Future<Tile> second = otherTileExecutor.submit(() -> controller.getTile(2, 2, 3));
+    awaitInFlight(controller, 2);
+
+    assertEquals(1, mainTasks.size());
+    mainTasks.get(0).run();
+
+    assertArrayEquals(new byte[] {1}, first.get().data);
+    assertArrayEquals(new byte[] {1}, second.get().data);
+  }
+
+  @Test
+  public void getTile_SharesRequestOfSameTile() throws Exception {
+    final Map<String, Object> tile = tileJson(new byte[] {1});
+    doAnswer(
+            invocation -> {
+              ((MethodChannel.Result) invocation.getArgument(2)).success(tile);
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+    final List<Runnable> mainTasks = new CopyOnWriteArrayList<>();
+    final TileProviderController controller =
+        new TileProviderController(
+            methodChannel,
+            null,
+            "overlay",
+            null,
+            mainTasks::add,
+            (runnable, delayMillis) -> runnable.run());
+    final Future<Tile> first = tileExecutor.submit(() -> controller.getTile(1, 2, 3));
+    awaitInFlight(controller, 1);
+    final Future<Tile> second = otherTileExecutor.submit(() -> controller.getTile(1, 2, 3));
+    while (!Long.valueOf(1).equals(controller.getTileRequestStats().get("coalesced"))) {
+      Thread.sleep(1);
+    }
+
+    for (Runnable task : mainTasks) {
+      task.run();
+    }
+
+    assertArrayEquals(new byte[] {1}, first.get().data);
+    assertArrayEquals(new byte[] {1}, second.get().data);
+    verify(methodChannel, times(1))
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+  }
+
+  @Test
+  public void getTile_JoinedRequestsTimeOutWithSharedRequest() throws Exception {
+    final TileProviderController controller = createController();
+    controller.setTileTimeout(300);
+    final Future<Tile> first = tileExecutor.submit(() -> controller.getTile(1, 2, 3));
+    awaitInFlight(controller, 1);
+    Thread.sleep(150);
+
+    final long joinTime = System.nanoTime();
+    final Future<Tile> second = otherTileExecutor.submit(() -> controller.getTile(1, 2, 3));
+
+    assertNull(first.get());
+    assertNull(second.get());
+    // The joined request waits for the rest of the shared request, not a timeout of its own.
+    assertTrue(System.nanoTime() - joinTime < TimeUnit.MILLISECONDS.toNanos(280));
+    assertEquals(1L, controller.getTileRequestStats().get("coalesced"));
+    final Map<String, Object> metrics = controller.getTileMetrics();
+    assertEquals(1L, metrics.get("timeouts"));
+    assertEquals(2L, metrics.get("unavailable"));
+  }
+
+  private TileProviderController createBatchingController(List<Runnable> batchFlushes) {
+    final TileProviderController controller =
+        new TileProviderController(
+            methodChannel,
+            null,
+            "overlay",
+            null,
+            Runnable::run,
+            (runnable, delayMillis) -> batchFlushes.add(runnable));
+    controller.setBatchWindow(20);
+    return controller;
+  }
+
+  private static void awaitInFlight(TileProviderController controller, int count)
+      throws InterruptedException {
+    while (!Integer.valueOf(count).equals(controller.getTileRequestStats().get("inFlight"))) {
+      Thread.sleep(1);
+    }
+  }
+
+  @Test
+  public void getTile_SendsRequestsOfBatchWindowTogether() throws Exception {
+    doAnswer(
+            invocation -> {
+              final Map<?, ?> arguments = invocation.getArgument(1);
+              final int[] tiles = (int[]) arguments.get("tiles");
+              final List<Object> result = new ArrayList<>();
+              for (int i = 0; i < tiles.length; i += 3) {
+                result.add(tileJson(new byte[] {(byte) tiles[i], (byte) tiles[i + 1]}));
+              }
+              ((MethodChannel.Result) invocation.getArgument(2)).success(result);
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTiles"), any(), any(MethodChannel.Result.class));
+    final List<Runnable> batchFlushes = new CopyOnWriteArrayList<>();
+    final TileProviderController controller = createBatchingController(batchFlushes);
+    final Future<Tile> first = tileExecutor.submit(() -> controller.getTile(1, 2, 3));
+    final Future<Tile> second = otherTileExecutor.submit(() -> controller.getTile(3, 4, 3));
+    awaitInFlight(controller, 2);
+
+    assertEquals(1, batchFlushes.size());
+    batchFlushes.get(0).run();
+
+    assertArrayEquals(new byte[] {1, 2}, first.get().data);
+    assertArrayEquals(new byte[] {3, 4}, second.get().data);
+    verify(methodChannel, never())
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+    assertEquals(1L, controller.getTileRequestStats().get("batches"));
+    assertEquals(2L, controller.getTileRequestStats().get("batchedTiles"));
+  }
+
+  @Test
+  public void getTile_FallsBackToSingleRequestsIfBatchesAreNotImplemented() throws Exception {
+    doAnswer(
+            invocation -> {
+              ((MethodChannel.Result) invocation.getArgument(2)).notImplemented();
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTiles"), any(), any(MethodChannel.Result.class));
+    doAnswer(
+            invocation -> {
+              final Map<?, ?> arguments = invocation.getArgument(1);
+              ((MethodChannel.Result) invocation.getArgument(2))
+                  .success(tileJson(new byte[] {((Integer) arguments.get("x")).byteValue()}));
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+    final List<Runnable> batchFlushes = new CopyOnWriteArrayList<>();
+    final TileProviderController controller = createBatchingController(batchFlushes);
+    final Future<Tile> first = tileExecutor.submit(() -> controller.getTile(1, 2, 3));
+    final Future<Tile> second = otherTileExecutor.submit(() -> controller.getTile(3, 4, 3));
+    awaitInFlight(controller, 2);
+    batchFlushes.get(0).run();
+
+    assertArrayEquals(new byte[] {1}, first.get().data);
+    assertArrayEquals(new byte[] {3}, second.get().data);
+  }
+
+  private static ByteBuffer tileMessage(int requestId, int width, int height, byte[] data) {
+    final ByteBuffer message =
+        ByteBuffer.allocateDirect(16 + data.length).order(ByteOrder.LITTLE_ENDIAN);
+    message.putInt(requestId).putInt(width).putInt(height).putInt(data.length).put(data);
+    message.flip();
+    return message;
+  }
+
+  @Test
+  public void getTile_ReceivesTileThroughTileDataChannel() {
+    final TileDataChannel tileDataChannel = new TileDataChannel();
+    doAnswer(
+            invocation -> {
+              final Map<?, ?> arguments = invocation.getArgument(1);
+              final int requestId = (Integer) arguments.get("requestId");
+              ((MethodChannel.Result) invocation.getArgument(2)).success(null);
+              tileDataChannel.onMessage(
+                  tileMessage(requestId, 512, 256, new byte[] {4, 5, 6}),
+                  mock(BinaryMessenger.BinaryReply.class));
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+
+    final Tile tile = createController(tileDataChannel).getTile(1, 2, 3);
+
+    assertEquals(512, tile.width);
+    assertEquals(256, tile.height);
+    assertArrayEquals(new byte[] {4, 5, 6}, tile.data);
+  }
+
+  @Test
+  public void getTile_ReceivesNoTileThroughTileDataChannel() {
+    final TileDataChannel tileDataChannel = new TileDataChannel();
+    doAnswer(
+            invocation -> {
+              final Map<?, ?> arguments = invocation.getArgument(1);
+              final ByteBuffer message =
+                  ByteBuffer.allocateDirect(16).order(ByteOrder.LITTLE_ENDIAN);
+              message.putInt((Integer) arguments.get("requestId")).putInt(0).putInt(0).putInt(-1);
+              message.flip();
+              ((MethodChannel.Result) invocation.getArgument(2)).success(null);
+              tileDataChannel.onMessage(message, mock(BinaryMessenger.BinaryReply.class));
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+    final TileProviderController controller = createController(tileDataChannel);
+
+    assertSame(TileProvider.NO_TILE, controller.getTile(1, 2, 3));
+    assertEquals(1L, controller.getTileMetrics().get("noTile"));
+  }
+
+  @Test
+  public void getTile_KeepsRequestIdsOfBatchesFallingBackToSingleRequests() throws Exception {
+    final TileDataChannel tileDataChannel = new TileDataChannel();
+    final List<Integer> batchRequestIds = new ArrayList<>();
+    final List<Integer> requestIds = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              final Map<?, ?> arguments = invocation.getArgument(1);
+              for (int requestId : (int[]) arguments.get("requestIds")) {
+                batchRequestIds.add(requestId);
+              }
+              ((MethodChannel.Result) invocation.getArgument(2)).notImplemented();
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTiles"), any(), any(MethodChannel.Result.class));
+    doAnswer(
+            invocation -> {
+              final Map<?, ?> arguments = invocation.getArgument(1);
+              final int requestId = (Integer) arguments.get("requestId");
+              requestIds.add(requestId);
+              ((MethodChannel.Result) invocation.getArgument(2)).success(null);
+              tileDataChannel.onMessage(
+                  tileMessage(requestId, 256, 256, new byte[] {1}),
+                  mock(BinaryMessenger.BinaryReply.class));
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+    final List<Runnable> batchFlushes = new CopyOnWriteArrayList<>();
+    final TileProviderController controller =
+        new TileProviderController(
+            methodChannel,
+            tileDataChannel,
+            "overlay",
+            null,
+            Runnable::run,
+            (runnable, delayMillis) -> batchFlushes.add(runnable));
+    controller.setBatchWindow(20);
+    final Future<Tile> first = tileExecutor.submit(() -> controller.getTile(1, 2, 3));
+    final Future<Tile> second = otherTileExecutor.submit(() -> controller.getTile(3, 4, 3));
+    awaitInFlight(controller, 2);
+    batchFlushes.get(0).run();
+
+    assertArrayEquals(new byte[] {1}, first.get().data);
+    assertArrayEquals(new byte[] {1}, second.get().data);
+    assertEquals(batchRequestIds, requestIds);
+    assertEquals(0, tileDataChannel.getReceiverCount());
+  }
+
+  @Test
+  public void getTile_IgnoresTileDataOfTimedOutRequests() {
+    final TileDataChannel tileDataChannel = new TileDataChannel();
+    final List<Integer> requestIds = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              final Map<?, ?> arguments = invocation.getArgument(1);
+              requestIds.add((Integer) arguments.get("requestId"));
+              return null;
+            })
+        .when(methodChannel)
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any(MethodChannel.Result.class));
+    final TileProviderController controller = createController(tileDataChannel);
+    controller.setTileTimeout(10);
+
+    assertNull(controller.getTile(1, 2, 3));
+    final BinaryMessenger.BinaryReply reply = mock(BinaryMessenger.BinaryReply.class);
+    tileDataChannel.onMessage(tileMessage(requestIds.get(0), 256, 256, new byte[] {1}), reply);
+
+    verify(reply).reply(null);
+  }
+}
@@ -0,0 +1,52 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import org.junit.Test;
+
+public class TileViewportTest {
+
+  @Test
+  public void contains_TilesInAndNearVisibleRegion() {
+    // Tiles 5 to 6 in both directions at zoom 4.
+    final TileViewport viewport =
+        new TileViewport(
+            new LatLngBounds(new LatLng(-40.0, -50.0), new LatLng(-25.0, -30.0)), 4.2f);
+
+    assertTrue(viewport.contains(5, 9, 4));
+    assertTrue(viewport.contains(6, 10, 4));
+    assertTrue(viewport.contains(7, 10, 4));
+    assertFalse(viewport.contains(9, 10, 4));
+    assertFalse(viewport.contains(5, 3, 4));
+    // Neighbouring zoom levels are kept, others are not.
+    assertTrue(viewport.contains(11, 19, 5));
+    assertFalse(viewport.contains(22, 38, 6));
+    assertFalse(viewport.contains(1, 2, 2));
+  }
+
+  @Test
+  public void contains_TilesAcrossAntimeridian() {
+    final TileViewport viewport =
+        new TileViewport(new LatLngBounds(new LatLng(-10.0, 170.0), new LatLng(10.0, -170.0)), 6f);
+
+    assertTrue(viewport.contains(63, 32, 6));
+    assertTrue(viewport.contains(0, 31, 6));
+    assertFalse(viewport.contains(32, 32, 6));
+  }
+
+  @Test
+  public void contains_AllTilesOfSmallWorlds() {
+    final TileViewport viewport =
+        new TileViewport(new LatLngBounds(new LatLng(0.0, 0.0), new LatLng(1.0, 1.0)), 1f);
+
+    assertTrue(viewport.contains(0, 0, 1));
+    assertTrue(viewport.contains(1, 1, 2));
+  }
+}
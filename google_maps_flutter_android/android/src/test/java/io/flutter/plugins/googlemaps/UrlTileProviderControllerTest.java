@@ -0,0 +1,179 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class UrlTileProviderControllerTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private HttpServer server;
+  private final List<String> requestedPaths = new ArrayList<>();
+  private final List<String> ifNoneMatchHeaders = new ArrayList<>();
+  private final AtomicInteger concurrentRequests = new AtomicInteger();
+  private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+  private volatile String cacheControl = "no-cache";
+  private volatile long responseDelayMillis;
+
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  // Serves "/{z}/{x}/{y}" tiles whose content is their path, with the path as ETag, and 404 for
+  // tiles at zoom 0.
+  private void handle(HttpExchange exchange) throws IOException {
+    final int concurrent = concurrentRequests.incrementAndGet();
+    maxConcurrentRequests.accumulateAndGet(concurrent, Math::max);
+    try {
+      Thread.sleep(responseDelayMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    final String path = exchange.getRequestURI().getPath();
+    final String etag = "\"" + path + "\"";
+    synchronized (this) {
+      requestedPaths.add(path);
+      ifNoneMatchHeaders.add(exchange.getRequestHeaders().getFirst("If-None-Match"));
+    }
+    concurrentRequests.decrementAndGet();
+    if (path.startsWith("/0/")) {
+      exchange.sendResponseHeaders(404, -1);
+    } else if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+      exchange.sendResponseHeaders(304, -1);
+    } else {
+      final byte[] body = path.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("ETag", etag);
+      exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream output = exchange.getResponseBody()) {
+        output.write(body);
+      }
+    }
+    exchange.close();
+  }
+
+  private UrlTileProviderController createController(int maxConnections, long maxDiskBytes) {
+    return new UrlTileProviderController(
+        "overlay",
+        "http://localhost:" + server.getAddress().getPort() + "/{z}/{x}/{y}",
+        512,
+        maxConnections,
+        temporaryFolder.getRoot(),
+        "0",
+        maxDiskBytes);
+  }
+
+  @Test
+  public void getTile_FetchesTileOfUrlTemplate() {
+    final UrlTileProviderController controller = createController(4, 0);
+
+    final Tile tile = controller.getTile(3, 5, 4);
+
+    assertEquals(512, tile.width);
+    assertEquals(512, tile.height);
+    assertArrayEquals("/4/3/5".getBytes(StandardCharsets.UTF_8), tile.data);
+    assertSame(TileProvider.NO_TILE, controller.getTile(0, 0, 0));
+    final Map<String, Object> metrics = controller.getTileMetrics();
+    assertEquals(2L, metrics.get("requests"));
+    assertEquals(2L, ((Map<?, ?>) metrics.get("provider")).get("fetches"));
+  }
+
+  @Test
+  public void getTile_RevalidatesStoredTilesWithEtag() {
+    final UrlTileProviderController controller = createController(4, 100000);
+    final Tile tile = controller.getTile(1, 2, 3);
+
+    final Tile revalidated = controller.getTile(1, 2, 3);
+
+    assertArrayEquals(tile.data, revalidated.data);
+    assertEquals(2, requestedPaths.size());
+    assertNull(ifNoneMatchHeaders.get(0));
+    assertEquals("\"/3/1/2\"", ifNoneMatchHeaders.get(1));
+    assertEquals(1L, ((Map<?, ?>) controller.getTileMetrics().get("cache")).get("notModified"));
+  }
+
+  @Test
+  public void getTile_ServesStoredTilesUntilTheyExpire() {
+    cacheControl = "public, max-age=3600";
+    createController(4, 100000).getTile(1, 2, 3);
+    final UrlTileProviderController controller = createController(4, 100000);
+
+    final Tile tile = controller.getTile(1, 2, 3);
+
+    assertArrayEquals("/3/1/2".getBytes(StandardCharsets.UTF_8), tile.data);
+    assertEquals(1, requestedPaths.size());
+    assertEquals(1L, controller.getTileCacheStats().get("diskHits"));
+  }
+
+  @Test
+  public void setCacheVersion_KeepsStoredTilesOfSameVersion() {
+    cacheControl = "public, max-age=3600";
+    final UrlTileProviderController controller = createController(4, 100000);
+    controller.getTile(1, 2, 3);
+
+    assertFalse(controller.setCacheVersion("0"));
+    controller.getTile(1, 2, 3);
+    assertEquals(1, requestedPaths.size());
+
+    assertTrue(controller.setCacheVersion("1"));
+    controller.getTile(1, 2, 3);
+    assertEquals(2, requestedPaths.size());
+  }
+
+  @Test
+  public void getTile_LimitsConcurrentConnections() throws Exception {
+    responseDelayMillis = 20;
+    final UrlTileProviderController controller = createController(2, 0);
+    final ExecutorService tileExecutor = Executors.newFixedThreadPool(6);
+    final List<Future<Tile>> tiles = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      final int x = i;
+      tiles.add(tileExecutor.submit(() -> controller.getTile(x, 0, 3)));
+    }
+
+    for (Future<Tile> tile : tiles) {
+      assertEquals(512, tile.get().width);
+    }
+    tileExecutor.shutdown();
+    assertEquals(2, maxConcurrentRequests.get());
+  }
+}
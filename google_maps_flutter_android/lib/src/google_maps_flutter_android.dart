@@ -142,6 +142,11 @@ class GoogleMapsFlutterAndroid extends GoogleMapsFlutterPlatform {
     return _events(mapId).whereType<MarkerDragEndEvent>();
   }
 
+  @override
+  Stream<ClusterTapEvent> onClusterTap({required int mapId}) {
+    return _events(mapId).whereType<ClusterTapEvent>();
+  }
+
   @override
   Stream<PolylineTapEvent> onPolylineTap({required int mapId}) {
     return _events(mapId).whereType<PolylineTapEvent>();
@@ -214,6 +219,15 @@ class GoogleMapsFlutterAndroid extends GoogleMapsFlutterPlatform {
           MarkerId(call.arguments['markerId'] as String),
         ));
         break;
+      case 'cluster#onTap':
+        _mapEventStreamController.add(ClusterTapEvent(
+          mapId,
+          LatLng.fromJson(call.arguments['position'])!,
+          (call.arguments['markerIds'] as List<dynamic>)
+              .map((dynamic markerId) => MarkerId(markerId as String))
+              .toList(),
+        ));
+        break;
       case 'polyline#onTap':
         _mapEventStreamController.add(PolylineTapEvent(
           mapId,
@@ -251,20 +265,80 @@ class GoogleMapsFlutterAndroid extends GoogleMapsFlutterPlatform {
         final TileOverlay? tileOverlay =
             tileOverlaysForThisMap?[TileOverlayId(tileOverlayId)];
         final TileProvider? tileProvider = tileOverlay?.tileProvider;
-        if (tileProvider == null) {
-          return TileProvider.noTile.toJson();
+        final int? requestId = call.arguments['requestId'] as int?;
+        final Tile tile = tileProvider == null
+            ? TileProvider.noTile
+            : await tileProvider.getTile(
+                call.arguments['x'] as int,
+                call.arguments['y'] as int,
+                call.arguments['zoom'] as int?,
+              );
+        if (requestId != null) {
+          _sendTileData(mapId, requestId, tile);
+          return null;
         }
-        final Tile tile = await tileProvider.getTile(
-          call.arguments['x'] as int,
-          call.arguments['y'] as int,
-          call.arguments['zoom'] as int?,
-        );
         return tile.toJson();
+      case 'tileOverlay#getTiles':
+        return _getTiles(
+          mapId,
+          call.arguments['tileOverlayId'] as String,
+          call.arguments['tiles'] as List<int>,
+          call.arguments['requestIds'] as List<int>?,
+        );
       default:
         throw MissingPluginException();
     }
   }
 
+  // Returns the tiles of a batch of tile requests, given as the x, y and zoom
+  // of each tile one after the other, in the same order. If the requests have
+  // ids, the tiles are sent through the tile data channel instead.
+  Future<List<Object>?> _getTiles(int mapId, String tileOverlayId,
+      List<int> tiles, List<int>? requestIds) async {
+    final TileOverlay? tileOverlay =
+        _tileOverlays[mapId]?[TileOverlayId(tileOverlayId)];
+    final TileProvider? tileProvider = tileOverlay?.tileProvider;
+    final List<Future<Tile>> futures = <Future<Tile>>[];
+    for (int i = 0; i + 2 < tiles.length; i += 3) {
+      Future<Tile> tile = tileProvider == null
+          ? Future<Tile>.value(TileProvider.noTile)
+          : tileProvider.getTile(tiles[i], tiles[i + 1], tiles[i + 2]);
+      if (requestIds != null) {
+        final int requestId = requestIds[i ~/ 3];
+        // Sends each tile as soon as it is ready.
+        tile = tile.then((Tile value) {
+          _sendTileData(mapId, requestId, value);
+          return value;
+        });
+      }
+      futures.add(tile);
+    }
+    final List<Tile> results = await Future.wait(futures);
+    if (requestIds != null) {
+      return null;
+    }
+    return results.map<Object>((Tile tile) => tile.toJson()).toList();
+  }
+
+  // Sends a tile through the tile data channel of the map, as its request id,
+  // width, height and data length as little endian 32 bit integers, followed
+  // by the data. This spares the codec encoding of the tile on both sides.
+  void _sendTileData(int mapId, int requestId, Tile tile) {
+    final Uint8List? data = tile.data;
+    final Uint8List message = Uint8List(16 + (data?.length ?? 0));
+    message.buffer.asByteData()
+      ..setInt32(0, requestId, Endian.little)
+      ..setInt32(4, tile.width, Endian.little)
+      ..setInt32(8, tile.height, Endian.little)
+      ..setInt32(12, data?.length ?? -1, Endian.little);
+    if (data != null) {
+      message.setRange(16, message.length, data);
+    }
+    _channel(mapId).binaryMessenger.send(
+        'plugins.flutter.dev/google_maps_android_tiles_$mapId',
+        message.buffer.asByteData());
+  }
+
   @override
   Future<void> updateMapOptions(
     Map<String, dynamic> optionsUpdate, {
@@ -299,7 +373,7 @@ class GoogleMapsFlutterAndroid extends GoogleMapsFlutterPlatform {
     assert(polygonUpdates != null);
     return _channel(mapId).invokeMethod<void>(
       'polygons#update',
-      polygonUpdates.toJson(),
+      _packPointsOfUpdates(polygonUpdates.toJson(), 'polygons'),
     );
   }
 
@@ -311,7 +385,7 @@ class GoogleMapsFlutterAndroid extends GoogleMapsFlutterPlatform {
     assert(polylineUpdates != null);
     return _channel(mapId).invokeMethod<void>(
       'polylines#update',
-      polylineUpdates.toJson(),
+      _packPointsOfUpdates(polylineUpdates.toJson(), 'polylines'),
     );
   }
 
@@ -492,8 +566,10 @@ class GoogleMapsFlutterAndroid extends GoogleMapsFlutterPlatform {
           widgetConfiguration.initialCameraPosition.toMap(),
       'options': mapOptions,
       'markersToAdd': serializeMarkerSet(mapObjects.markers),
-      'polygonsToAdd': serializePolygonSet(mapObjects.polygons),
-      'polylinesToAdd': serializePolylineSet(mapObjects.polylines),
+      'polygonsToAdd':
+          _packPointsOfObjects(serializePolygonSet(mapObjects.polygons)),
+      'polylinesToAdd':
+          _packPointsOfObjects(serializePolylineSet(mapObjects.polylines)),
       'circlesToAdd': serializeCircleSet(mapObjects.circles),
       'tileOverlaysToAdd': serializeTileOverlaySet(mapObjects.tileOverlays),
     };
@@ -671,6 +747,56 @@ Map<String, Object> _jsonForMapConfiguration(MapConfiguration config) {
   };
 }
 
+/// Replaces the points of the polylines or polygons added or changed by
+/// [updates] with packed coordinates; see [_packPoints].
+Object _packPointsOfUpdates(Object updates, String objectsName) {
+  final Map<String, Object> json = updates as Map<String, Object>;
+  for (final String key in <String>[
+    '${objectsName}ToAdd',
+    '${objectsName}ToChange'
+  ]) {
+    final Object? objects = json[key];
+    if (objects != null) {
+      json[key] = _packPointsOfObjects(objects);
+    }
+  }
+  return json;
+}
+
+/// Replaces the points and holes of serialized polylines or polygons with
+/// packed coordinates; see [_packPoints].
+Object _packPointsOfObjects(Object objects) {
+  return (objects as List<Object?>).map((Object? object) {
+    final Map<String, Object?> json = object! as Map<String, Object?>;
+    final Object? points = json['points'];
+    final Object? holes = json['holes'];
+    return <String, Object?>{
+      ...json,
+      if (points != null) 'points': _packPoints(points),
+      if (holes != null)
+        'holes': (holes as List<Object?>)
+            .map((Object? hole) => _packPoints(hole!))
+            .toList(),
+    };
+  }).toList();
+}
+
+/// Packs a list of `[latitude, longitude]` lists into a [Float64List] of
+/// latitudes and longitudes, one point after the other.
+///
+/// The standard codec writes it as a single array of doubles, which the
+/// platform side reads without boxing every coordinate.
+Float64List _packPoints(Object points) {
+  final List<Object?> pointList = points as List<Object?>;
+  final Float64List packed = Float64List(pointList.length * 2);
+  for (int i = 0; i < pointList.length; i++) {
+    final List<Object?> point = pointList[i]! as List<Object?>;
+    packed[i * 2] = (point[0]! as num).toDouble();
+    packed[i * 2 + 1] = (point[1]! as num).toDouble();
+  }
+  return packed;
+}
+
 /// Update specification for a set of [TileOverlay]s.
 // TODO(stuartmorgan): Fix the missing export of this class in the platform
 // interface, and remove this copy.
@@ -123,6 +123,56 @@ void main() {
         equals('drag-end-marker'));
   });
 
+  test('tile overlays send native tile options', () async {
+    const int mapId = 1;
+    final GoogleMapsFlutterAndroid maps = GoogleMapsFlutterAndroid();
+    final List<dynamic> tileOverlaysToAdd = <dynamic>[];
+    configureMockMap(maps, mapId: mapId,
+        handler: (MethodCall methodCall) async {
+      if (methodCall.method == 'tileOverlays#update') {
+        tileOverlaysToAdd.addAll(
+            methodCall.arguments['tileOverlaysToAdd'] as List<dynamic>);
+      }
+      return null;
+    });
+
+    await maps.updateTileOverlays(newTileOverlays: <TileOverlay>{
+      const TileOverlay(
+          tileOverlayId: TileOverlayId('url'),
+          urlTemplate: 'https://tile.example.com/{z}/{x}/{y}.png',
+          maxConnections: 2),
+    }, mapId: mapId);
+
+    expect(tileOverlaysToAdd, hasLength(1));
+    final Map<dynamic, dynamic> json =
+        tileOverlaysToAdd.single as Map<dynamic, dynamic>;
+    expect(json['urlTemplate'], 'https://tile.example.com/{z}/{x}/{y}.png');
+    expect(json['maxConnections'], 2);
+  });
+
+  test('clusters send tap event to the cluster stream', () async {
+    const int mapId = 1;
+    final Map<dynamic, dynamic> jsonClusterTapEvent = <dynamic, dynamic>{
+      'markerIds': <String>['marker-1', 'marker-2'],
+      'position': <double>[1.0, 2.0],
+      'count': 2,
+    };
+
+    final GoogleMapsFlutterAndroid maps = GoogleMapsFlutterAndroid();
+    maps.ensureChannelInitialized(mapId);
+
+    final StreamQueue<ClusterTapEvent> clusterTapStream =
+        StreamQueue<ClusterTapEvent>(maps.onClusterTap(mapId: mapId));
+
+    await sendPlatformMessage(mapId, 'cluster#onTap', jsonClusterTapEvent);
+
+    final ClusterTapEvent event = await clusterTapStream.next;
+    expect(event.position, equals(const LatLng(1.0, 2.0)));
+    expect(event.value,
+        equals(const <MarkerId>[MarkerId('marker-1'), MarkerId('marker-2')]));
+    expect(event.count, equals(2));
+  });
+
   test(
     'Does not use PlatformViewLink when using TLHC',
     () async {
@@ -131,6 +131,20 @@ class MarkerDragEndEvent extends _PositionedMapEvent<MarkerId> {
       : super(mapId, position, markerId);
 }
 
+/// An event fired when a cluster of [Marker]s, grouped on the native side, is
+/// tapped.
+class ClusterTapEvent extends _PositionedMapEvent<List<MarkerId>> {
+  /// Build a ClusterTap Event triggered from the map represented by `mapId`.
+  ///
+  /// The `position` of this event is the center of the tapped cluster, and
+  /// its `value` the [MarkerId]s of the markers it groups.
+  ClusterTapEvent(int mapId, LatLng position, List<MarkerId> markerIds)
+      : super(mapId, position, markerIds);
+
+  /// The number of markers grouped by the tapped cluster.
+  int get count => value.length;
+}
+
 /// An event fired when a [Polyline] is tapped.
 class PolylineTapEvent extends MapEvent<PolylineId> {
   /// Build an PolylineTap Event triggered from the map represented by `mapId`.
@@ -52,6 +52,14 @@ class TileOverlay implements MapsObject<TileOverlay> {
     this.zIndex = 0,
     this.visible = true,
     this.tileSize = 256,
+    this.cacheVersion,
+    this.memoryCacheSize,
+    this.diskCacheSize,
+    this.tileTimeout,
+    this.tileBatchWindow,
+    this.urlTemplate,
+    this.maxConnections,
+    this.mbTilesPath,
   }) : assert(transparency >= 0.0 && transparency <= 1.0);
 
   /// Uniquely identifies a [TileOverlay].
@@ -85,6 +93,61 @@ class TileOverlay implements MapsObject<TileOverlay> {
   /// would give on a non-retina device.
   final int tileSize;
 
+  /// The version of the tiles of the overlay. Android only.
+  ///
+  /// Tiles are cached natively per version, so changing it discards the cached
+  /// tiles, for example once the data behind the [tileProvider] changes.
+  /// Defaults to `null`, which keeps the current version.
+  final String? cacheVersion;
+
+  /// The size, in bytes, of the native memory cache of the tiles of the overlay.
+  /// Android only.
+  ///
+  /// Defaults to `null`, for no memory cache. Can't be changed once the overlay
+  /// is on the map.
+  final int? memoryCacheSize;
+
+  /// The size, in bytes, of the native disk cache of the tiles of the overlay,
+  /// which survives clearing the tile cache and app restarts. Android only.
+  ///
+  /// Defaults to `null`, for no disk cache. Can't be changed once the overlay
+  /// is on the map.
+  final int? diskCacheSize;
+
+  /// How long the map waits for a tile before giving up on it, after which it
+  /// requests the tile again later if it still needs it. Android only.
+  ///
+  /// [Duration.zero] waits forever. Defaults to `null`, for the native default
+  /// of 10 seconds.
+  final Duration? tileTimeout;
+
+  /// How long the map waits for more tile requests to ask the [tileProvider]
+  /// for them in a single platform call. Android only.
+  ///
+  /// Defaults to `null`, for one platform call per tile.
+  final Duration? tileBatchWindow;
+
+  /// The URL of the tiles, with `{x}`, `{y}` and `{z}` placeholders, such as
+  /// `https://tile.example.com/{z}/{x}/{y}.png`. Android only.
+  ///
+  /// If set, the tiles are fetched natively over HTTP rather than asked from the
+  /// [tileProvider]. Can't be changed once the overlay is on the map.
+  final String? urlTemplate;
+
+  /// The maximum number of tiles of a [urlTemplate] overlay fetched at once.
+  /// Android only.
+  ///
+  /// Defaults to `null`, for the native default of 4.
+  final int? maxConnections;
+
+  /// The path of a local MBTiles file to read the tiles from. Android only.
+  ///
+  /// If set, the tiles are read natively from the file rather than asked from
+  /// the [tileProvider], and cached in memory, 2 MB unless [memoryCacheSize] is
+  /// set. A missing or invalid file shows no tiles. Can't be changed once the
+  /// overlay is on the map.
+  final String? mbTilesPath;
+
   /// Creates a new [TileOverlay] object whose values are the same as this instance,
   /// unless overwritten by the specified parameters.
   TileOverlay copyWith({
@@ -94,6 +157,14 @@ class TileOverlay implements MapsObject<TileOverlay> {
     int? zIndexParam,
     bool? visibleParam,
     int? tileSizeParam,
+    String? cacheVersionParam,
+    int? memoryCacheSizeParam,
+    int? diskCacheSizeParam,
+    Duration? tileTimeoutParam,
+    Duration? tileBatchWindowParam,
+    String? urlTemplateParam,
+    int? maxConnectionsParam,
+    String? mbTilesPathParam,
   }) {
     return TileOverlay(
       tileOverlayId: tileOverlayId,
@@ -103,6 +174,14 @@ class TileOverlay implements MapsObject<TileOverlay> {
       zIndex: zIndexParam ?? zIndex,
       visible: visibleParam ?? visible,
       tileSize: tileSizeParam ?? tileSize,
+      cacheVersion: cacheVersionParam ?? cacheVersion,
+      memoryCacheSize: memoryCacheSizeParam ?? memoryCacheSize,
+      diskCacheSize: diskCacheSizeParam ?? diskCacheSize,
+      tileTimeout: tileTimeoutParam ?? tileTimeout,
+      tileBatchWindow: tileBatchWindowParam ?? tileBatchWindow,
+      urlTemplate: urlTemplateParam ?? urlTemplate,
+      maxConnections: maxConnectionsParam ?? maxConnections,
+      mbTilesPath: mbTilesPathParam ?? mbTilesPath,
     );
   }
 
@@ -126,6 +205,14 @@ class TileOverlay implements MapsObject<TileOverlay> {
     addIfPresent('zIndex', zIndex);
     addIfPresent('visible', visible);
     addIfPresent('tileSize', tileSize);
+    addIfPresent('cacheVersion', cacheVersion);
+    addIfPresent('memoryCacheSize', memoryCacheSize);
+    addIfPresent('diskCacheSize', diskCacheSize);
+    addIfPresent('tileTimeout', tileTimeout?.inMilliseconds);
+    addIfPresent('tileBatchWindow', tileBatchWindow?.inMilliseconds);
+    addIfPresent('urlTemplate', urlTemplate);
+    addIfPresent('maxConnections', maxConnections);
+    addIfPresent('mbTilesPath', mbTilesPath);
 
     return json;
   }
@@ -142,10 +229,20 @@ class TileOverlay implements MapsObject<TileOverlay> {
         transparency == other.transparency &&
         zIndex == other.zIndex &&
         visible == other.visible &&
-        tileSize == other.tileSize;
+        tileSize == other.tileSize &&
+        cacheVersion == other.cacheVersion &&
+        memoryCacheSize == other.memoryCacheSize &&
+        diskCacheSize == other.diskCacheSize &&
+        tileTimeout == other.tileTimeout &&
+        tileBatchWindow == other.tileBatchWindow &&
+        urlTemplate == other.urlTemplate &&
+        maxConnections == other.maxConnections &&
+        mbTilesPath == other.mbTilesPath;
   }
 
   @override
   int get hashCode => Object.hash(tileOverlayId, fadeIn, tileProvider,
-      transparency, zIndex, visible, tileSize);
+      transparency, zIndex, visible, tileSize, cacheVersion, memoryCacheSize,
+      diskCacheSize, tileTimeout, tileBatchWindow, urlTemplate, maxConnections,
+      mbTilesPath);
 }
@@ -38,7 +38,15 @@ void main() {
           transparency: 0.1,
           zIndex: 1,
           visible: false,
-          tileSize: 128);
+          tileSize: 128,
+          cacheVersion: 'v2',
+          memoryCacheSize: 4096,
+          diskCacheSize: 8192,
+          tileTimeout: Duration(seconds: 5),
+          tileBatchWindow: Duration(milliseconds: 16),
+          urlTemplate: 'https://tile.example.com/{z}/{x}/{y}.png',
+          maxConnections: 2,
+          mbTilesPath: '/data/tiles/city.mbtiles');
       final Object json = tileOverlay.toJson();
       expect(json, <String, Object>{
         'tileOverlayId': 'id',
@@ -47,6 +55,14 @@ void main() {
         'zIndex': 1,
         'visible': false,
         'tileSize': 128,
+        'cacheVersion': 'v2',
+        'memoryCacheSize': 4096,
+        'diskCacheSize': 8192,
+        'tileTimeout': 5000,
+        'tileBatchWindow': 16,
+        'urlTemplate': 'https://tile.example.com/{z}/{x}/{y}.png',
+        'maxConnections': 2,
+        'mbTilesPath': '/data/tiles/city.mbtiles',
       });
     });
 
@@ -109,7 +125,15 @@ void main() {
           transparency: 0.1,
           zIndex: 1,
           visible: false,
-          tileSize: 128);
+          tileSize: 128,
+          cacheVersion: 'v2',
+          memoryCacheSize: 4096,
+          diskCacheSize: 8192,
+          tileTimeout: const Duration(seconds: 5),
+          tileBatchWindow: const Duration(milliseconds: 16),
+          urlTemplate: 'https://tile.example.com/{z}/{x}/{y}.png',
+          maxConnections: 2,
+          mbTilesPath: '/data/tiles/city.mbtiles');
       expect(tileOverlay, tileOverlay.clone());
     });
 
@@ -123,7 +147,15 @@ void main() {
           transparency: 0.1,
           zIndex: 1,
           visible: false,
-          tileSize: 128);
+          tileSize: 128,
+          cacheVersion: 'v2',
+          memoryCacheSize: 4096,
+          diskCacheSize: 8192,
+          tileTimeout: const Duration(seconds: 5),
+          tileBatchWindow: const Duration(milliseconds: 16),
+          urlTemplate: 'https://tile.example.com/{z}/{x}/{y}.png',
+          maxConnections: 2,
+          mbTilesPath: '/data/tiles/city.mbtiles');
       expect(
           tileOverlay.hashCode,
           Object.hash(
@@ -133,7 +165,15 @@ void main() {
               tileOverlay.transparency,
               tileOverlay.zIndex,
               tileOverlay.visible,
-              tileOverlay.tileSize));
+              tileOverlay.tileSize,
+              tileOverlay.cacheVersion,
+              tileOverlay.memoryCacheSize,
+              tileOverlay.diskCacheSize,
+              tileOverlay.tileTimeout,
+              tileOverlay.tileBatchWindow,
+              tileOverlay.urlTemplate,
+              tileOverlay.maxConnections,
+              tileOverlay.mbTilesPath));
     });
   });
 }